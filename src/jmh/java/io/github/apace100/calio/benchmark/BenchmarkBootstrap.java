@@ -0,0 +1,30 @@
+package io.github.apace100.calio.benchmark;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+/**
+ *  Initializes the vanilla registries outside of a running game, which the built-in data types (and anything that
+ *  references {@link io.github.apace100.calio.data.SerializableDataTypes}) depend on. Mixins aren't applied, so benchmarks
+ *  should stay clear of code that relies on them.
+ */
+public final class BenchmarkBootstrap {
+
+    private static boolean initialized;
+
+    private BenchmarkBootstrap() {}
+
+    public static synchronized void initialize() {
+
+        if (initialized) {
+            return;
+        }
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        initialized = true;
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.github.apace100.calio.benchmark;
+
+import io.github.apace100.calio.data.SerializableData;
+import io.github.apace100.calio.data.SerializableDataTypes;
+import io.github.apace100.calio.registry.DataObject;
+import io.github.apace100.calio.registry.DataObjectFactory;
+import io.github.apace100.calio.registry.DataObjectRegistry;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Measures syncing a synthetic data object registry with the specified number of entries, both in the full format and as
+ *  a delta containing all entries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataObjectRegistryBenchmark {
+
+    //  Registries can't be unregistered, so every trial creates registries with new IDs
+    private static final AtomicInteger NEXT_REGISTRY = new AtomicInteger();
+
+    private static final Identifier FACTORY_ID = new Identifier("calio", "benchmark");
+
+    @Param({"1000", "10000", "100000"})
+    public int entries;
+
+    private DataObjectRegistry<BenchmarkObject> registry;
+    private DataObjectRegistry<BenchmarkObject> receiver;
+
+    private PacketByteBuf writeBuffer;
+    private PacketByteBuf fullPacket;
+    private PacketByteBuf deltaPacket;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        BenchmarkBootstrap.initialize();
+
+        registry = createRegistry();
+        receiver = createRegistry();
+
+        for (int i = 0; i < entries; i++) {
+            registry.register(new Identifier("calio", "entry_" + i), new BenchmarkObject(new Identifier("calio", "target_" + (i % 512)), "Entry " + i, i, i % 3 == 0, List.of(i, i + 1, i + 2)));
+        }
+
+        writeBuffer = new PacketByteBuf(Unpooled.buffer());
+        fullPacket = new PacketByteBuf(Unpooled.buffer());
+        deltaPacket = new PacketByteBuf(Unpooled.buffer());
+
+        registry.write(fullPacket);
+        registry.getSnapshot().writeDelta(deltaPacket, null);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writeBuffer.release();
+        fullPacket.release();
+        deltaPacket.release();
+    }
+
+    private static DataObjectRegistry<BenchmarkObject> createRegistry() {
+        DataObjectRegistry<BenchmarkObject> registry = new DataObjectRegistry.Builder<>(new Identifier("calio", "benchmark_" + NEXT_REGISTRY.incrementAndGet()), BenchmarkObject.class)
+            .defaultFactory(BenchmarkObject.FACTORY)
+            .buildAndRegister();
+        registry.registerFactory(FACTORY_ID, BenchmarkObject.FACTORY);
+        return registry;
+    }
+
+    @Benchmark
+    public int write() {
+        writeBuffer.clear();
+        registry.write(writeBuffer);
+        return writeBuffer.writerIndex();
+    }
+
+    @Benchmark
+    public int receive() {
+        fullPacket.readerIndex(0);
+        receiver.receive(fullPacket);
+        return receiver.getIds().size();
+    }
+
+    /**
+     *  Encodes every entry again, since taking a snapshot of a registry whose entries changed is what the server does
+     *  after a reload.
+     */
+    @Benchmark
+    public int writeDelta() {
+        Identifier firstId = new Identifier("calio", "entry_0");
+        registry.register(firstId, registry.get(firstId));
+        writeBuffer.clear();
+        registry.getSnapshot().writeDelta(writeBuffer, null);
+        return writeBuffer.writerIndex();
+    }
+
+    @Benchmark
+    public int receiveDelta() {
+        deltaPacket.readerIndex(0);
+        receiver.receiveDelta(deltaPacket, Runnable::run, version -> {});
+        return receiver.getIds().size();
+    }
+
+    public record BenchmarkObject(Identifier target, String name, int amount, boolean hidden, List<Integer> values) implements DataObject<BenchmarkObject> {
+
+        private static final DataObjectFactory<BenchmarkObject> FACTORY = new DataObjectFactory<>() {
+
+            private final SerializableData data = new SerializableData()
+                .add("target", SerializableDataTypes.IDENTIFIER)
+                .add("name", SerializableDataTypes.STRING)
+                .add("amount", SerializableDataTypes.INT)
+                .add("hidden", SerializableDataTypes.BOOLEAN, false)
+                .add("values", SerializableDataTypes.INTS);
+
+            @Override
+            public SerializableData getData() {
+                return data;
+            }
+
+            @Override
+            public BenchmarkObject fromData(SerializableData.Instance instance) {
+                return new BenchmarkObject(instance.getId("target"), instance.getString("name"), instance.getInt("amount"), instance.getBoolean("hidden"), instance.get("values"));
+            }
+
+            @Override
+            public SerializableData.Instance toData(BenchmarkObject object) {
+                SerializableData.Instance instance = data.new Instance();
+                instance.set("target", object.target);
+                instance.set("name", object.name);
+                instance.set("amount", object.amount);
+                instance.set("hidden", object.hidden);
+                instance.set("values", object.values);
+                return instance;
+            }
+
+        };
+
+        @Override
+        public DataObjectFactory<BenchmarkObject> getFactory() {
+            return FACTORY;
+        }
+
+    }
+
+}
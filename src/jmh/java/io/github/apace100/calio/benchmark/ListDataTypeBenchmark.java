@@ -0,0 +1,104 @@
+package io.github.apace100.calio.benchmark;
+
+import com.google.gson.JsonArray;
+import io.github.apace100.calio.data.SerializableDataType;
+import io.github.apace100.calio.data.SerializableDataTypes;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Measures reading, sending and receiving large lists, both of primitives and of objects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListDataTypeBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private JsonArray intsJson;
+    private JsonArray identifiersJson;
+
+    private List<Integer> ints;
+    private List<Identifier> identifiers;
+
+    private PacketByteBuf writeBuffer;
+    private PacketByteBuf intsBuffer;
+    private PacketByteBuf identifiersBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        BenchmarkBootstrap.initialize();
+
+        intsJson = new JsonArray(size);
+        identifiersJson = new JsonArray(size);
+        for (int i = 0; i < size; i++) {
+            intsJson.add(i);
+            identifiersJson.add("calio:entry_" + i);
+        }
+
+        ints = SerializableDataTypes.INTS.read(intsJson);
+        identifiers = SerializableDataTypes.IDENTIFIERS.read(identifiersJson);
+
+        writeBuffer = new PacketByteBuf(Unpooled.buffer());
+        intsBuffer = new PacketByteBuf(Unpooled.buffer());
+        identifiersBuffer = new PacketByteBuf(Unpooled.buffer());
+
+        SerializableDataTypes.INTS.send(intsBuffer, ints);
+        SerializableDataTypes.IDENTIFIERS.send(identifiersBuffer, identifiers);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writeBuffer.release();
+        intsBuffer.release();
+        identifiersBuffer.release();
+    }
+
+    @Benchmark
+    public List<Integer> readInts() {
+        return SerializableDataTypes.INTS.read(intsJson);
+    }
+
+    @Benchmark
+    public List<Identifier> readIdentifiers() {
+        return SerializableDataTypes.IDENTIFIERS.read(identifiersJson);
+    }
+
+    @Benchmark
+    public int sendInts() {
+        return send(SerializableDataTypes.INTS, ints);
+    }
+
+    @Benchmark
+    public int sendIdentifiers() {
+        return send(SerializableDataTypes.IDENTIFIERS, identifiers);
+    }
+
+    @Benchmark
+    public List<Integer> receiveInts() {
+        intsBuffer.readerIndex(0);
+        return SerializableDataTypes.INTS.receive(intsBuffer);
+    }
+
+    @Benchmark
+    public List<Identifier> receiveIdentifiers() {
+        identifiersBuffer.readerIndex(0);
+        return SerializableDataTypes.IDENTIFIERS.receive(identifiersBuffer);
+    }
+
+    private <T> int send(SerializableDataType<T> dataType, T value) {
+        writeBuffer.clear();
+        dataType.send(writeBuffer, value);
+        return writeBuffer.writerIndex();
+    }
+
+}
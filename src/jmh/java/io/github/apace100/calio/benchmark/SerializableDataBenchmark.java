@@ -0,0 +1,108 @@
+package io.github.apace100.calio.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.github.apace100.calio.data.SerializableData;
+import io.github.apace100.calio.data.SerializableDataTypes;
+import io.github.apace100.calio.network.IdentifierTable;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Measures reading a compound {@link SerializableData} from JSON, and sending and receiving it, with and without generated
+ *  codecs and in both network encodings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializableDataBenchmark {
+
+    @Param({"false", "true"})
+    public boolean generatedCodecs;
+
+    @Param({"regular", "compact"})
+    public String encoding;
+
+    private SerializableData data;
+    private JsonObject jsonObject;
+    private SerializableData.Instance instance;
+
+    private PacketByteBuf writeBuffer;
+    private PacketByteBuf readBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        BenchmarkBootstrap.initialize();
+        SerializableData.setGeneratedCodecs(generatedCodecs);
+
+        data = new SerializableData()
+            .add("id", SerializableDataTypes.IDENTIFIER)
+            .add("name", SerializableDataTypes.STRING)
+            .add("amount", SerializableDataTypes.INT)
+            .add("chance", SerializableDataTypes.FLOAT, 1.0F)
+            .add("scale", SerializableDataTypes.DOUBLE, 1.0)
+            .add("hidden", SerializableDataTypes.BOOLEAN, false)
+            .add("cooldown", SerializableDataTypes.POSITIVE_INT, 20)
+            .add("description", SerializableDataTypes.STRING, null)
+            .add("tags", SerializableDataTypes.IDENTIFIERS, null)
+            .add("values", SerializableDataTypes.INTS);
+
+        jsonObject = new JsonObject();
+        jsonObject.addProperty("id", "calio:benchmark");
+        jsonObject.addProperty("name", "Benchmark");
+        jsonObject.addProperty("amount", 42);
+        jsonObject.addProperty("chance", 0.5F);
+        jsonObject.addProperty("hidden", true);
+        jsonObject.addProperty("description", "A data object used by the benchmarks");
+
+        JsonArray values = new JsonArray();
+        for (int i = 0; i < 16; i++) {
+            values.add(i * 31);
+        }
+
+        jsonObject.add("values", values);
+        instance = data.read(jsonObject);
+
+        writeBuffer = createBuffer();
+        readBuffer = createBuffer();
+        data.write(readBuffer, instance);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SerializableData.setGeneratedCodecs(false);
+        writeBuffer.release();
+        readBuffer.release();
+    }
+
+    private PacketByteBuf createBuffer() {
+        return encoding.equals("compact")
+            ? new SyncPacketByteBuf(Unpooled.buffer(), new IdentifierTable(), SyncPacketByteBuf.COMPACT)
+            : new PacketByteBuf(Unpooled.buffer());
+    }
+
+    @Benchmark
+    public SerializableData.Instance readJson() {
+        return data.read(jsonObject);
+    }
+
+    @Benchmark
+    public int write() {
+        writeBuffer.clear();
+        data.write(writeBuffer, instance);
+        return writeBuffer.writerIndex();
+    }
+
+    @Benchmark
+    public SerializableData.Instance receive() {
+        readBuffer.readerIndex(0);
+        return data.read(readBuffer);
+    }
+
+}
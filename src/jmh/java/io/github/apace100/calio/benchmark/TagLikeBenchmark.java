@@ -0,0 +1,57 @@
+package io.github.apace100.calio.benchmark;
+
+import io.github.apace100.calio.util.TagLike;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.tag.ItemTags;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Measures checking whether items are contained in a tag-like with the specified number of items and a few tags. Tags
+ *  aren't loaded outside of a world, so the tags never contain anything; this still measures the cost of checking them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TagLikeBenchmark {
+
+    @Param({"1", "64", "1024"})
+    public int items;
+
+    private TagLike<Item> tagLike;
+    private Item[] queries;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        BenchmarkBootstrap.initialize();
+
+        List<Item> allItems = Registries.ITEM.stream().toList();
+        tagLike = new TagLike<>(Registries.ITEM);
+        tagLike.addTag(ItemTags.LOGS);
+        tagLike.addTag(ItemTags.WOOL);
+        tagLike.addTag(ItemTags.SWORDS);
+
+        for (int i = 0; i < Math.min(items, allItems.size()); i++) {
+            tagLike.add(allItems.get(i * 7 % allItems.size()));
+        }
+
+        //  Queries both items that are contained and items that aren't
+        queries = new Item[256];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = allItems.get(i * 13 % allItems.size());
+        }
+
+    }
+
+    @Benchmark
+    public boolean contains() {
+        Item query = queries[index++ & (queries.length - 1)];
+        return tagLike.contains(query);
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.github.apace100.calio.benchmark;
+
+import io.github.apace100.calio.FilterableWeightedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Measures picking random elements from a weighted list, with and without a filter, one at a time and in batches of 16
+ *  with and without replacement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeightedListBenchmark {
+
+    @Param({"8", "256", "4096"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private FilterableWeightedList<Integer> list;
+    private Random random;
+    private Integer[] batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        random = new Random(0L);
+        batch = new Integer[16];
+        list = new FilterableWeightedList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i, 1 + i % 10);
+        }
+
+        if (filtered) {
+            list.setFilter(i -> i % 2 == 0);
+        }
+
+    }
+
+    @Benchmark
+    public Integer pickRandom() {
+        return list.pickRandom(random);
+    }
+
+    @Benchmark
+    public int pickBatchWithReplacement() {
+        return list.pickRandom(random, batch, batch.length, true);
+    }
+
+    @Benchmark
+    public int pickBatchWithoutReplacement() {
+        return list.pickRandom(random, batch, batch.length, false);
+    }
+
+}
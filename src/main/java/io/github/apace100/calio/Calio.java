@@ -1,6 +1,13 @@
 package io.github.apace100.calio;
 
+import io.github.apace100.calio.command.ReloadProfilerCommand;
+import io.github.apace100.calio.data.SerializableDataType;
+import io.github.apace100.calio.network.CalioNetworking;
+import io.github.apace100.calio.util.TagLike;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.advancement.criterion.Criteria;
 import net.minecraft.item.ItemStack;
 import net.minecraft.registry.DynamicRegistryManager;
@@ -13,6 +20,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 public class Calio implements ModInitializer {
 
@@ -21,9 +29,36 @@ public class Calio implements ModInitializer {
 	public static final ThreadLocal<DynamicRegistryManager> DYNAMIC_REGISTRIES = new ThreadLocal<>();
 	public static final ThreadLocal<Map<TagKey<?>, Collection<RegistryEntry<?>>>> REGISTRY_TAGS = new ThreadLocal<>();
 
+	/**
+	 * The tags referenced by data that is decoded on a thread without {@link #REGISTRY_TAGS}, e.g: while preparing a
+	 * reload, so that their existence can be checked once the tags are loaded.
+	 */
+	public static final ThreadLocal<Set<TagKey<?>>> UNCHECKED_TAGS = new ThreadLocal<>();
+
 	@Override
 	public void onInitialize() {
         Criteria.register(CodeTriggerCriterion.ID.toString(), CodeTriggerCriterion.INSTANCE);
+		CalioNetworking.registerReceivers();
+		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> ReloadProfilerCommand.register(dispatcher));
+		CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> TagLike.onTagsLoaded());
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> SerializableDataType.clearInternedValues());
+		ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> SerializableDataType.clearInternedValues());
+	}
+
+	/**
+	 * Returns whether the specified tag doesn't exist in the tags of the current reload. If those aren't available on
+	 * this thread, the tag is assumed to exist, and added to the {@link #UNCHECKED_TAGS} of this thread instead.
+	 */
+	public static boolean isTagMissing(TagKey<?> tagKey) {
+		Map<TagKey<?>, Collection<RegistryEntry<?>>> registryTags = REGISTRY_TAGS.get();
+		if(registryTags != null) {
+			return !registryTags.containsKey(tagKey);
+		}
+		Set<TagKey<?>> uncheckedTags = UNCHECKED_TAGS.get();
+		if(uncheckedTags != null) {
+			uncheckedTags.add(tagKey);
+		}
+		return false;
 	}
 
 	public static boolean hasNonItalicName(ItemStack stack) {
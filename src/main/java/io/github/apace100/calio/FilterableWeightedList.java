@@ -1,9 +1,14 @@
 package io.github.apace100.calio;
 
-import io.github.apace100.calio.mixin.WeightedListEntryAccessor;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.util.collection.WeightedList;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -11,13 +16,30 @@ public class FilterableWeightedList<U> extends WeightedList<U> {
 
     private Predicate<U> filter;
 
+    //  The weights of the entries, keyed by the entries themselves since shuffling reorders them. Kept here so that picks
+    //  don't depend on the accessor mixin of the entries, which isn't applied outside of the game (e.g: in benchmarks).
+    private final Reference2IntMap<Entry<U>> weights = new Reference2IntOpenHashMap<>();
+
+    //  The entries that pass the filter, prepared for picking; null until they're needed after the entries or the filter
+    //  changed, so the filter is tested once per change instead of once per pick. Streams always test the filter.
+    private volatile Sampler<U> sampler;
+
     public int size() {
         return entries.size();
     }
 
+    @Override
+    public WeightedList<U> add(U data, int weight) {
+        super.add(data, weight);
+        weights.put(this.entries.get(this.entries.size() - 1), weight);
+        this.sampler = null;
+        return this;
+    }
+
     public void addFilter(Predicate<U> filter) {
         if(hasFilter()) {
             this.filter = this.filter.and(filter);
+            this.sampler = null;
         } else {
             setFilter(filter);
         }
@@ -25,16 +47,26 @@ public class FilterableWeightedList<U> extends WeightedList<U> {
 
     public void setFilter(Predicate<U> filter) {
         this.filter = filter;
+        this.sampler = null;
     }
 
     public void removeFilter() {
         this.filter = null;
+        this.sampler = null;
     }
 
     public boolean hasFilter() {
         return this.filter != null;
     }
 
+    /**
+     * Makes the filter be tested again on the next pick. The results of the filter are kept for picking until the entries
+     * or the filter change, so this needs to be called if the filter depends on state that changed since then.
+     */
+    public void refreshFilter() {
+        this.sampler = null;
+    }
+
     public Stream<U> stream() {
         if(filter != null) {
             return this.entries.stream().map(WeightedList.Entry::getElement).filter(filter);
@@ -47,15 +79,66 @@ public class FilterableWeightedList<U> extends WeightedList<U> {
     }
 
     public void addAll(FilterableWeightedList<U> other) {
-        other.entryStream().forEach(entry -> add(entry.getElement(), ((WeightedListEntryAccessor)entry).getWeight()));
+        other.entryStream().forEach(entry -> add(entry.getElement(), other.weights.getInt(entry)));
     }
 
+    /**
+     * Picks a random element that passes the filter, where the chance of an element being picked is proportional to its
+     * weight. The picks are done with an alias table of the elements that pass the filter, which is built on the first
+     * pick after the entries or the filter changed, so a pick takes constant time and doesn't allocate.
+     * @param random the random number generator to pick with
+     * @throws RuntimeException if no element passes the filter
+     */
     public U pickRandom(Random random) {
-        return pickRandom();
+        Sampler<U> sampler = getSampler();
+        if(sampler.size() == 0) {
+            throw new RuntimeException();
+        }
+        return sampler.pick(random);
     }
 
     public U pickRandom() {
-        return this.shuffle().stream().findFirst().orElseThrow(RuntimeException::new);
+        return pickRandom(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Picks multiple random elements that pass the filter into the specified array, with the same preparation as
+     * {@link #pickRandom(Random)}.<br>
+     * With replacement, each pick is independent of the others and takes constant time. Without replacement, each
+     * element is picked at most once, in the order of a weighted random permutation of the elements (Efraimidis-Spirakis),
+     * which takes {@code O(n log count)} time for {@code n} elements that pass the filter.
+     * @param random the random number generator to pick with
+     * @param destination the array to put the picked elements into, starting at index 0
+     * @param count the number of elements to pick
+     * @param replacement whether an element may be picked more than once
+     * @return the number of picked elements, which is less than the count if fewer elements pass the filter (or none,
+     * when picking with replacement), or if fewer of them have a positive weight when picking without replacement
+     */
+    public int pickRandom(Random random, U[] destination, int count, boolean replacement) {
+        Objects.checkFromIndexSize(0, count, destination.length);
+        Sampler<U> sampler = getSampler();
+        if(sampler.size() == 0) {
+            return 0;
+        }
+        if(replacement) {
+            for(int i = 0; i < count; i++) {
+                destination[i] = sampler.pick(random);
+            }
+            return count;
+        }
+        return sampler.pickDistinct(random, destination, count);
+    }
+
+    private Sampler<U> getSampler() {
+        Sampler<U> sampler = this.sampler;
+        if(sampler == null) {
+            List<Entry<U>> filteredEntries = filter != null
+                ? this.entries.stream().filter(entry -> filter.test(entry.getElement())).toList()
+                : List.copyOf(this.entries);
+            sampler = Sampler.create(filteredEntries, weights);
+            this.sampler = sampler;
+        }
+        return sampler;
     }
 
     public FilterableWeightedList<U> copy() {
@@ -63,4 +146,187 @@ public class FilterableWeightedList<U> extends WeightedList<U> {
         copied.addAll(this);
         return copied;
     }
+
+    /**
+     * The elements that pass the filter, with an alias table for picking weighted elements in constant time with Vose's
+     * alias method. Each column of the table holds an element, the probability of picking that element when the column
+     * is picked, and the element to pick otherwise. If none of the elements have weight, all of them are equally likely
+     * to be picked.
+     */
+    private static final class Sampler<U> {
+
+        private final Object[] elements;
+        private final int[] weights;
+        private final int weightedCount;
+        private final double[] probabilities;
+        private final int[] aliases;
+
+        private Sampler(Object[] elements, int[] weights, int weightedCount, double[] probabilities, int[] aliases) {
+            this.elements = elements;
+            this.weights = weights;
+            this.weightedCount = weightedCount;
+            this.probabilities = probabilities;
+            this.aliases = aliases;
+        }
+
+        private static <U> Sampler<U> create(List<Entry<U>> entries, Reference2IntMap<Entry<U>> entryWeights) {
+
+            int size = entries.size();
+            Object[] elements = new Object[size];
+            int[] weights = new int[size];
+            double[] probabilities = new double[size];
+            int[] aliases = new int[size];
+
+            long totalWeight = 0;
+            int weightedCount = 0;
+            for(int i = 0; i < size; i++) {
+                Entry<U> entry = entries.get(i);
+                elements[i] = entry.getElement();
+                weights[i] = Math.max(entryWeights.getInt(entry), 0);
+                totalWeight += weights[i];
+                if(weights[i] > 0) {
+                    weightedCount++;
+                }
+            }
+
+            if(totalWeight == 0) {
+                Arrays.fill(weights, 1);
+                totalWeight = size;
+                weightedCount = size;
+            }
+
+            //  Scale the weights so that their average is 1, then split them into the ones below and above the average
+            int[] small = new int[size];
+            int[] large = new int[size];
+            int smallCount = 0;
+            int largeCount = 0;
+
+            for(int i = 0; i < size; i++) {
+                probabilities[i] = (double) weights[i] * size / totalWeight;
+                if(probabilities[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+
+            //  Fill the remainder of each column below the average with an element above it
+            while(smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                aliases[less] = more;
+                probabilities[more] = probabilities[more] + probabilities[less] - 1.0;
+                if(probabilities[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+
+            //  Whatever remains is at the average, apart from rounding errors
+            while(largeCount > 0) {
+                probabilities[large[--largeCount]] = 1.0;
+            }
+            while(smallCount > 0) {
+                probabilities[small[--smallCount]] = 1.0;
+            }
+
+            return new Sampler<>(elements, weights, weightedCount, probabilities, aliases);
+
+        }
+
+        private int size() {
+            return elements.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        private U pick(Random random) {
+            int column = random.nextInt(elements.length);
+            return (U) (random.nextDouble() < probabilities[column] ? elements[column] : elements[aliases[column]]);
+        }
+
+        /**
+         * Gives each element the key {@code log(u) / weight} for a uniform random {@code u}, and picks the elements with
+         * the largest keys in descending order, keeping the largest keys seen so far in a min-heap. Elements without weight
+         * can't be picked, so at most as many elements as have a positive weight are picked.
+         */
+        @SuppressWarnings("unchecked")
+        private int pickDistinct(Random random, U[] destination, int count) {
+
+            int picked = Math.min(count, weightedCount);
+            if(picked == 0) {
+                return 0;
+            }
+
+            int[] heap = new int[picked];
+            double[] keys = new double[picked];
+            int heapSize = 0;
+
+            for(int i = 0; i < elements.length; i++) {
+                double key = weights[i] > 0 ? Math.log(random.nextDouble()) / weights[i] : Double.NEGATIVE_INFINITY;
+                if(heapSize < picked) {
+                    heap[heapSize] = i;
+                    keys[heapSize] = key;
+                    siftUp(heap, keys, heapSize++);
+                } else if(key > keys[0]) {
+                    heap[0] = i;
+                    keys[0] = key;
+                    siftDown(heap, keys, heapSize);
+                }
+            }
+
+            //  The root of the heap has the smallest of the largest keys, so the heap is emptied from the back
+            for(int i = picked - 1; i >= 0; i--) {
+                destination[i] = (U) elements[heap[0]];
+                heapSize--;
+                heap[0] = heap[heapSize];
+                keys[0] = keys[heapSize];
+                siftDown(heap, keys, heapSize);
+            }
+
+            return picked;
+
+        }
+
+        private static void siftUp(int[] heap, double[] keys, int index) {
+            while(index > 0) {
+                int parent = (index - 1) >>> 1;
+                if(keys[parent] <= keys[index]) {
+                    break;
+                }
+                swap(heap, keys, parent, index);
+                index = parent;
+            }
+        }
+
+        private static void siftDown(int[] heap, double[] keys, int size) {
+            int index = 0;
+            while(true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if(left < size && keys[left] < keys[smallest]) {
+                    smallest = left;
+                }
+                if(right < size && keys[right] < keys[smallest]) {
+                    smallest = right;
+                }
+                if(smallest == index) {
+                    return;
+                }
+                swap(heap, keys, smallest, index);
+                index = smallest;
+            }
+        }
+
+        private static void swap(int[] heap, double[] keys, int i, int j) {
+            int element = heap[i];
+            heap[i] = heap[j];
+            heap[j] = element;
+            double key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+
+    }
 }
@@ -7,6 +7,7 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import io.github.apace100.calio.access.ExtraShapedRecipeData;
 import io.github.apace100.calio.mixin.ShapedRecipeAccessor;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
 import net.minecraft.entity.attribute.EntityAttributeModifier;
 import net.minecraft.entity.effect.StatusEffect;
 import net.minecraft.entity.effect.StatusEffectInstance;
@@ -118,7 +119,7 @@ public class SerializationHelper {
     public static EntityAttributeModifier readAttributeModifier(PacketByteBuf buf) {
         String modName = buf.readString(32767);
         double modValue = buf.readDouble();
-        int operation = buf.readInt();
+        int operation = SyncPacketByteBuf.readSize(buf);
         return new EntityAttributeModifier(modName, modValue, EntityAttributeModifier.Operation.fromId(operation));
     }
 
@@ -127,7 +128,7 @@ public class SerializationHelper {
     public static void writeAttributeModifier(PacketByteBuf buf, EntityAttributeModifier modifier) {
         buf.writeString(modifier.getName());
         buf.writeDouble(modifier.getValue());
-        buf.writeInt(modifier.getOperation().getId());
+        SyncPacketByteBuf.writeSize(buf, modifier.getOperation().getId());
     }
 
     public static StatusEffectInstance readStatusEffect(JsonElement jsonElement) {
@@ -151,21 +152,17 @@ public class SerializationHelper {
 
     public static StatusEffectInstance readStatusEffect(PacketByteBuf buf) {
         Identifier effect = buf.readIdentifier();
-        int duration = buf.readInt();
-        int amplifier = buf.readInt();
-        boolean ambient = buf.readBoolean();
-        boolean showParticles = buf.readBoolean();
-        boolean showIcon = buf.readBoolean();
-        return new StatusEffectInstance(Registries.STATUS_EFFECT.get(effect), duration, amplifier, ambient, showParticles, showIcon);
+        int duration = SyncPacketByteBuf.readSignedInt(buf);
+        int amplifier = SyncPacketByteBuf.readSignedInt(buf);
+        boolean[] flags = SyncPacketByteBuf.readBooleans(buf, 3);
+        return new StatusEffectInstance(Registries.STATUS_EFFECT.get(effect), duration, amplifier, flags[0], flags[1], flags[2]);
     }
 
     public static void writeStatusEffect(PacketByteBuf buf, StatusEffectInstance statusEffectInstance) {
         buf.writeIdentifier(Registries.STATUS_EFFECT.getId(statusEffectInstance.getEffectType()));
-        buf.writeInt(statusEffectInstance.getDuration());
-        buf.writeInt(statusEffectInstance.getAmplifier());
-        buf.writeBoolean(statusEffectInstance.isAmbient());
-        buf.writeBoolean(statusEffectInstance.shouldShowParticles());
-        buf.writeBoolean(statusEffectInstance.shouldShowIcon());
+        SyncPacketByteBuf.writeSignedInt(buf, statusEffectInstance.getDuration());
+        SyncPacketByteBuf.writeSignedInt(buf, statusEffectInstance.getAmplifier());
+        SyncPacketByteBuf.writeBooleans(buf, statusEffectInstance.isAmbient(), statusEffectInstance.shouldShowParticles(), statusEffectInstance.shouldShowIcon());
     }
 
     public static JsonElement writeStatusEffect(StatusEffectInstance statusEffectInstance) {
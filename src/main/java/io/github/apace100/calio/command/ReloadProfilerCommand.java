@@ -0,0 +1,121 @@
+package io.github.apace100.calio.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import io.github.apace100.calio.Calio;
+import io.github.apace100.calio.data.ReloadProfiler;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Util;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static net.minecraft.server.command.CommandManager.literal;
+
+/**
+ *  The {@code /calio profile} command, which controls the {@link ReloadProfiler}:
+ *  <ul>
+ *      <li>{@code start}/{@code stop} enable or disable recording; the next reload (e.g: {@code /reload}) is recorded</li>
+ *      <li>{@code dump} prints the slowest registries, factories, packs and files of the last recorded reload</li>
+ *      <li>{@code export} writes all records of the last recorded reload as JSON and CSV to {@code debug/calio}</li>
+ *  </ul>
+ */
+public final class ReloadProfilerCommand {
+
+    private static final int DUMP_LIMIT = 5;
+
+    private ReloadProfilerCommand() {}
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(literal("calio")
+            .requires(source -> source.hasPermissionLevel(2))
+            .then(literal("profile")
+                .then(literal("start").executes(context -> setEnabled(context, true)))
+                .then(literal("stop").executes(context -> setEnabled(context, false)))
+                .then(literal("dump").executes(ReloadProfilerCommand::dump))
+                .then(literal("export").executes(ReloadProfilerCommand::export))));
+    }
+
+    private static int setEnabled(CommandContext<ServerCommandSource> context, boolean enabled) {
+        ReloadProfiler.setEnabled(enabled);
+        context.getSource().sendFeedback(() -> Text.literal(enabled
+            ? "Reload profiling enabled; run /reload to record a reload"
+            : "Reload profiling disabled"), true);
+        return 1;
+    }
+
+    private static int dump(CommandContext<ServerCommandSource> context) {
+
+        ServerCommandSource source = context.getSource();
+        ReloadProfiler.Report report = ReloadProfiler.getReport();
+
+        if (report.files().isEmpty() && report.streamedFiles().isEmpty() && report.registries().isEmpty()) {
+            source.sendError(Text.literal("No reload was recorded; use /calio profile start, then /reload"));
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal("Parsed " + report.files().size() + " files in " + millis(report.totalParseNanos()) + " (summed over all threads)"), false);
+        dumpEntries(source, "Registries (apply)", report.registries());
+        dumpEntries(source, "Factories (decode)", report.factories());
+        dumpEntries(source, "Packs (parse)", report.packs());
+
+        source.sendFeedback(() -> Text.literal("Files (parse):"), false);
+        for (ReloadProfiler.FileRecord file : report.files().subList(0, Math.min(DUMP_LIMIT, report.files().size()))) {
+            source.sendFeedback(() -> Text.literal("  " + file.pack() + "/" + file.file() + ": " + millis(file.nanos()) + ", " + kibibytes(file.bytes())), false);
+        }
+
+        if (!report.streamedFiles().isEmpty()) {
+
+            source.sendFeedback(() -> Text.literal("Read and decoded " + report.streamedFiles().size() + " streamed files in " + millis(report.totalReadDecodeNanos()) + " (includes their decode times)"), false);
+            for (ReloadProfiler.FileRecord file : report.streamedFiles().subList(0, Math.min(DUMP_LIMIT, report.streamedFiles().size()))) {
+                source.sendFeedback(() -> Text.literal("  " + file.pack() + "/" + file.file() + ": " + millis(file.nanos()) + ", " + kibibytes(file.bytes())), false);
+            }
+
+        }
+
+        return report.files().size() + report.streamedFiles().size();
+
+    }
+
+    private static void dumpEntries(ServerCommandSource source, String title, List<ReloadProfiler.Entry> entries) {
+
+        source.sendFeedback(() -> Text.literal(title + ":"), false);
+        for (ReloadProfiler.Entry entry : entries.subList(0, Math.min(DUMP_LIMIT, entries.size()))) {
+            source.sendFeedback(() -> Text.literal("  " + entry.name() + ": " + millis(entry.nanos()) + " over " + entry.count() + ", " + kibibytes(entry.bytes())), false);
+        }
+
+    }
+
+    private static int export(CommandContext<ServerCommandSource> context) {
+
+        ServerCommandSource source = context.getSource();
+        ReloadProfiler.Report report = ReloadProfiler.getReport();
+
+        Path directory = FabricLoader.getInstance().getGameDir().resolve("debug").resolve("calio");
+        String fileName = "reload-profile-" + Util.getFormattedCurrentTime();
+
+        try {
+            report.writeJson(directory.resolve(fileName + ".json"));
+            report.writeCsv(directory.resolve(fileName + ".csv"));
+        } catch (Exception e) {
+            Calio.LOGGER.error("Could not export reload profile", e);
+            source.sendError(Text.literal("Could not export reload profile: " + e.getMessage()));
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal("Exported reload profile to " + directory.resolve(fileName) + ".json/.csv"), false);
+        return 1;
+
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+
+    private static String kibibytes(long bytes) {
+        return String.format("%.1f KiB", bytes / 1024.0);
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ *  A data type for booleans that stores them in the primitive slots of an {@link SerializableData.Instance}, so that
+ *  reading, receiving and sending them doesn't box them.
+ */
+public class BooleanDataType extends SerializableDataType<Boolean> {
+
+    public BooleanDataType() {
+        super(
+            Boolean.class,
+            PacketByteBuf::writeBoolean,
+            PacketByteBuf::readBoolean,
+            JsonElement::getAsBoolean,
+            JsonPrimitive::new
+        );
+    }
+
+    public boolean readBoolean(JsonElement jsonElement) {
+        return jsonElement.getAsBoolean();
+    }
+
+    public boolean receiveBoolean(PacketByteBuf buffer) {
+        return buffer.readBoolean();
+    }
+
+    public void sendBoolean(PacketByteBuf buffer, boolean value) {
+        buffer.writeBoolean(value);
+    }
+
+    @Override
+    void readInto(JsonElement jsonElement, SerializableData.Instance instance, int slot) {
+        instance.setBoolean(slot, readBoolean(jsonElement));
+    }
+
+    @Override
+    void receiveInto(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        instance.setBoolean(slot, receiveBoolean(buffer));
+    }
+
+    @Override
+    void sendFrom(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        sendBoolean(buffer, instance.getBoolean(slot));
+    }
+
+}
@@ -3,12 +3,14 @@ package io.github.apace100.calio.data;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
+import net.minecraft.resource.Resource;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.resource.SinglePreparationResourceReloader;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.Util;
 import net.minecraft.util.profiler.Profiler;
 import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.parsers.json.JsonFormat;
 import org.quiltmc.parsers.json.JsonReader;
 import org.quiltmc.parsers.json.gson.GsonReader;
@@ -16,7 +18,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,6 +39,9 @@ public abstract class CalioJsonDataLoader extends SinglePreparationResourceReloa
     private final String directoryName;
     private final Gson gson;
 
+    private boolean parallelPreparation;
+    private ParsedJsonCache jsonCache;
+
     public CalioJsonDataLoader(Gson gson, String directoryName) {
         this.gson = gson;
         this.directoryName = directoryName;
@@ -42,40 +50,123 @@ public abstract class CalioJsonDataLoader extends SinglePreparationResourceReloa
     @Override
     protected Map<Identifier, JsonElement> prepare(ResourceManager manager, Profiler profiler) {
 
-        Map<Identifier, JsonElement> result = new HashMap<>();
+        profiler.push(directoryName);
+        profiler.push("find_resources");
+
+        List<DataFile> dataFiles = new ArrayList<>();
         manager.findResources(directoryName, this::hasValidExtension).forEach((fileId, resource) -> {
 
             Identifier id = this.trim(fileId);
             String fileExtension = "." + FilenameUtils.getExtension(fileId.getPath());
 
             JsonFormat jsonFormat = VALID_EXTENSIONS.get(fileExtension);
-            String packName = resource.getResourcePackName();
+            dataFiles.add(new DataFile(fileId, id, jsonFormat, resource));
+
+        });
 
-            try (BufferedReader resourceReader = resource.getReader()) {
+        if (jsonCache != null) {
+            jsonCache.load(manager);
+        }
 
-                GsonReader gsonReader = new GsonReader(JsonReader.create(resourceReader, jsonFormat));
-                JsonElement jsonElement = gson.fromJson(gsonReader, JsonElement.class);
+        profiler.swap("parse");
 
-                if (jsonElement == null) {
-                    throw new JsonParseException("JSON cannot be null! Caused by either the file being empty or a syntax error when being parsed by " + gsonReader);
-                }
+        Map<Identifier, JsonElement> result = new HashMap<>();
+        List<JsonElement> jsonElements = ParallelPreparation.map(dataFiles, parallelPreparation, this::parse);
+
+        if (jsonCache != null) {
+            jsonCache.save();
+        }
+
+        profiler.pop();
+        profiler.pop();
 
-                JsonElement prevValue = result.put(id, jsonElement);
-                if (prevValue != null) {
-                    throw new IllegalStateException("Duplicate data file ignored with ID " + id);
-                }
+        for (int i = 0; i < dataFiles.size(); i++) {
 
-            } catch (Exception e) {
-                String filePath = packName + "/.../" + fileId.getNamespace() + "/" + fileId.getPath();
-                LOGGER.error("Couldn't parse data file \"{}\" from \"{}\": {}", id, filePath, e.getMessage());
+            DataFile dataFile = dataFiles.get(i);
+            JsonElement jsonElement = jsonElements.get(i);
+
+            if (jsonElement == null) {
+                continue;
             }
 
-        });
+            JsonElement prevValue = result.put(dataFile.id(), jsonElement);
+            if (prevValue != null) {
+                logError(dataFile, new IllegalStateException("Duplicate data file ignored with ID " + dataFile.id()));
+            }
+
+        }
 
         return result;
 
     }
 
+    @Nullable
+    private JsonElement parse(DataFile dataFile) {
+
+        ReloadProfiler.Sample sample = ReloadProfiler.begin();
+        try {
+
+            if (jsonCache != null) {
+                return jsonCache.getOrParse(dataFile.resource(), dataFile.fileId(), reader -> parse(reader, dataFile.jsonFormat()));
+            }
+
+            try (BufferedReader resourceReader = dataFile.resource().getReader()) {
+                return parse(resourceReader, dataFile.jsonFormat());
+            }
+
+        } catch (Exception e) {
+            logError(dataFile, e);
+            return null;
+        } finally {
+            ReloadProfiler.recordParse(sample, directoryName, dataFile.resource().getResourcePackName(), dataFile.fileId());
+        }
+
+    }
+
+    private JsonElement parse(Reader reader, JsonFormat jsonFormat) {
+
+        GsonReader gsonReader = new GsonReader(JsonReader.create(reader, jsonFormat));
+        JsonElement jsonElement = gson.fromJson(gsonReader, JsonElement.class);
+
+        if (jsonElement == null) {
+            throw new JsonParseException("JSON cannot be null! Caused by either the file being empty or a syntax error when being parsed by " + gsonReader);
+        }
+
+        return jsonElement;
+
+    }
+
+    private void logError(DataFile dataFile, Exception e) {
+        Identifier fileId = dataFile.fileId();
+        String filePath = dataFile.resource().getResourcePackName() + "/.../" + fileId.getNamespace() + "/" + fileId.getPath();
+        LOGGER.error("Couldn't parse data file \"{}\" from \"{}\": {}", dataFile.id(), filePath, e.getMessage());
+    }
+
+    /**
+     *  Sets whether the data files should be parsed across a pool of worker threads during preparation. The resulting
+     *  map is the same as when parsing the files one after another.
+     */
+    public void setParallelPreparation(boolean parallelPreparation) {
+        this.parallelPreparation = parallelPreparation;
+    }
+
+    public boolean isParallelPreparation() {
+        return parallelPreparation;
+    }
+
+    /**
+     *  Sets the cache used to skip parsing data files that didn't change since the last reload, or {@code null} to
+     *  always parse the data files.
+     */
+    public void setJsonCache(@Nullable ParsedJsonCache jsonCache) {
+        this.jsonCache = jsonCache;
+    }
+
+    @Nullable
+    public ParsedJsonCache getJsonCache() {
+        return jsonCache;
+    }
+
     protected Identifier trim(Identifier fileId) {
         String path = FilenameUtils.removeExtension(fileId.getPath()).substring(directoryName.length() + 1);
         return new Identifier(fileId.getNamespace(), path);
@@ -87,4 +178,8 @@ public abstract class CalioJsonDataLoader extends SinglePreparationResourceReloa
             .anyMatch(suffix -> fileId.getPath().endsWith(suffix));
     }
 
+    private record DataFile(Identifier fileId, Identifier id, JsonFormat jsonFormat, Resource resource) {
+
+    }
+
 }
@@ -1,11 +1,17 @@
 package io.github.apace100.calio.data;
 
+import io.github.apace100.calio.Calio;
 import io.github.apace100.calio.ClassUtil;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 public class ClassDataRegistry<T> {
 
@@ -16,9 +22,16 @@ public class ClassDataRegistry<T> {
     private SerializableDataType<List<Class<? extends T>>> listDataType;
 
     private final HashMap<String, Class<? extends T>> directMappings = new HashMap<>();
-    private final List<String> packages = new LinkedList<>();
+    private final List<String> packages = new ArrayList<>();
     private final String classSuffix;
 
+    //  The results of mapping strings to classes, including strings that couldn't be mapped, so each string is only
+    //  looked up once; cleared whenever a mapping or package is added
+    private final Map<String, Resolution<T>> resolutions = new ConcurrentHashMap<>();
+
+    //  The names of the classes in each indexed package, see indexPackages()
+    private final Map<String, Set<String>> packageIndex = new ConcurrentHashMap<>();
+
     protected ClassDataRegistry(Class<T> cls, String classSuffix) {
         this.clazz = cls;
         this.classSuffix = classSuffix;
@@ -26,10 +39,50 @@ public class ClassDataRegistry<T> {
 
     public void addMapping(String className, Class<?> cls) {
         directMappings.put(className, ClassUtil.castClass(cls));
+        resolutions.clear();
     }
 
     public void addPackage(String packagePath) {
         packages.add(packagePath);
+        resolutions.clear();
+    }
+
+    /**
+     * Lists the classes of the registered packages in all mods, so that mapping a string to a class only tries to load
+     * classes that exist, instead of trying every package and catching the exception for each one that doesn't. Packages
+     * that are added afterwards, or that couldn't be listed, are looked up by trying to load the classes.
+     */
+    public void indexPackages() {
+        for(String pkg : packages) {
+            Set<String> classNames = new HashSet<>();
+            boolean listed = false;
+            try {
+                for(ModContainer mod : FabricLoader.getInstance().getAllMods()) {
+                    for(Path rootPath : mod.getRootPaths()) {
+                        Path packagePath = rootPath.resolve(pkg.replace('.', '/'));
+                        if(!Files.isDirectory(packagePath)) {
+                            continue;
+                        }
+                        try(Stream<Path> files = Files.list(packagePath)) {
+                            files.map(path -> path.getFileName().toString())
+                                .filter(fileName -> fileName.endsWith(".class"))
+                                .forEach(fileName -> classNames.add(fileName.substring(0, fileName.length() - ".class".length())));
+                        }
+                        listed = true;
+                    }
+                }
+            } catch(IOException e) {
+                Calio.LOGGER.warn("Could not index package \"{}\" of class data registry for {}: {}", pkg, clazz.getName(), e.getMessage());
+                continue;
+            }
+            // The classes of a package that isn't in the root of any mod (e.g: in a nested jar) can't be listed here
+            if(listed) {
+                packageIndex.put(pkg, classNames);
+            } else {
+                packageIndex.remove(pkg);
+            }
+        }
+        resolutions.clear();
     }
 
     public SerializableDataType<Class<? extends T>> getDataType() {
@@ -54,28 +107,60 @@ public class ClassDataRegistry<T> {
         if(directMappings.containsKey(str)) {
             return Optional.of(directMappings.get(str));
         }
-        try {
-            return Optional.of((Class<? extends T>)Class.forName(str));
-        } catch(Exception e0) {
-            failedClasses.append(str);
+        Resolution<T> resolution = resolutions.get(str);
+        if(resolution == null) {
+            resolution = resolve(str);
+            resolutions.put(str, resolution);
+        }
+        if(resolution.resolvedClass() == null) {
+            failedClasses.append(resolution.failedClasses());
         }
+        return Optional.ofNullable(resolution.resolvedClass());
+    }
+
+    private Resolution<T> resolve(String str) {
+        StringBuilder failedClasses = new StringBuilder();
+        Class<? extends T> resolvedClass = loadClass(null, str);
+        if(resolvedClass != null) {
+            return new Resolution<>(resolvedClass, null);
+        }
+        failedClasses.append(str);
         for(String pkg : packages) {
-            String full = pkg + "." + str;
-            try {
-                return Optional.of((Class<? extends T>)Class.forName(full));
-            } catch(Exception e1) {
-                failedClasses.append(", ");
-                failedClasses.append(full);
+            resolvedClass = loadClass(pkg, str);
+            if(resolvedClass != null) {
+                return new Resolution<>(resolvedClass, null);
             }
-            full = pkg + "." + transformJsonToClass(str, classSuffix);
-            try {
-                return Optional.of((Class<? extends T>)Class.forName(full));
-            } catch(Exception e2) {
-                failedClasses.append(", ");
-                failedClasses.append(full);
+            failedClasses.append(", ");
+            failedClasses.append(pkg).append(".").append(str);
+            String transformed = transformJsonToClass(str, classSuffix);
+            resolvedClass = loadClass(pkg, transformed);
+            if(resolvedClass != null) {
+                return new Resolution<>(resolvedClass, null);
+            }
+            failedClasses.append(", ");
+            failedClasses.append(pkg).append(".").append(transformed);
+        }
+        return new Resolution<>(null, failedClasses.toString());
+    }
+
+    /**
+     * Loads the specified class, or returns null if it doesn't exist. Errors while linking or initializing a class that
+     * exists are thrown, so that they aren't mistaken for a missing class and cached as such.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private Class<? extends T> loadClass(@Nullable String pkg, String className) {
+        if(pkg != null) {
+            Set<String> indexedClassNames = packageIndex.get(pkg);
+            if(indexedClassNames != null && !indexedClassNames.contains(className)) {
+                return null;
             }
         }
-        return Optional.empty();
+        try {
+            return (Class<? extends T>)Class.forName(pkg != null ? pkg + "." + className : className);
+        } catch(Exception e) {
+            return null;
+        }
     }
 
     private SerializableDataType<Class<? extends T>> createDataType() {
@@ -108,6 +193,13 @@ public class ClassDataRegistry<T> {
         }
     }
 
+    /**
+     * The result of mapping a string to a class: either the class, or the names of the classes that were tried.
+     */
+    private record Resolution<T>(@Nullable Class<? extends T> resolvedClass, @Nullable String failedClasses) {
+
+    }
+
     private static String transformJsonToClass(String jsonName, String classSuffix) {
         StringBuilder builder = new StringBuilder();
         boolean caps = true;
@@ -0,0 +1,71 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ *  A data type for doubles that stores them in the primitive slots of an {@link SerializableData.Instance}, so that
+ *  reading, receiving and sending them doesn't box them. The bounds (if any) are checked when reading from JSON.
+ */
+public class DoubleDataType extends SerializableDataType<Double> {
+
+    private final double min;
+    private final double max;
+    private final String boundsMessage;
+
+    public DoubleDataType() {
+        this(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null);
+    }
+
+    public DoubleDataType(double min, double max, String boundsMessage) {
+        super(
+            Double.class,
+            PacketByteBuf::writeDouble,
+            PacketByteBuf::readDouble,
+            jsonElement -> checkBounds(jsonElement.getAsDouble(), min, max, boundsMessage),
+            JsonPrimitive::new
+        );
+        this.min = min;
+        this.max = max;
+        this.boundsMessage = boundsMessage;
+    }
+
+    public double readDouble(JsonElement jsonElement) {
+        return checkBounds(jsonElement.getAsDouble(), min, max, boundsMessage);
+    }
+
+    public double receiveDouble(PacketByteBuf buffer) {
+        return buffer.readDouble();
+    }
+
+    public void sendDouble(PacketByteBuf buffer, double value) {
+        buffer.writeDouble(value);
+    }
+
+    @Override
+    void readInto(JsonElement jsonElement, SerializableData.Instance instance, int slot) {
+        instance.setDouble(slot, readDouble(jsonElement));
+    }
+
+    @Override
+    void receiveInto(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        instance.setDouble(slot, receiveDouble(buffer));
+    }
+
+    @Override
+    void sendFrom(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        sendDouble(buffer, instance.getDouble(slot));
+    }
+
+    private static double checkBounds(double value, double min, double max, String boundsMessage) {
+
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(boundsMessage + " (current value: " + value + ")");
+        }
+
+        return value;
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ *  A data type for floats that stores them in the primitive slots of an {@link SerializableData.Instance}, so that
+ *  reading, receiving and sending them doesn't box them. The bounds (if any) are checked when reading from JSON.
+ */
+public class FloatDataType extends SerializableDataType<Float> {
+
+    private final float min;
+    private final float max;
+    private final String boundsMessage;
+
+    public FloatDataType() {
+        this(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, null);
+    }
+
+    public FloatDataType(float min, float max, String boundsMessage) {
+        super(
+            Float.class,
+            PacketByteBuf::writeFloat,
+            PacketByteBuf::readFloat,
+            jsonElement -> checkBounds(jsonElement.getAsFloat(), min, max, boundsMessage),
+            JsonPrimitive::new
+        );
+        this.min = min;
+        this.max = max;
+        this.boundsMessage = boundsMessage;
+    }
+
+    public float readFloat(JsonElement jsonElement) {
+        return checkBounds(jsonElement.getAsFloat(), min, max, boundsMessage);
+    }
+
+    public float receiveFloat(PacketByteBuf buffer) {
+        return buffer.readFloat();
+    }
+
+    public void sendFloat(PacketByteBuf buffer, float value) {
+        buffer.writeFloat(value);
+    }
+
+    @Override
+    void readInto(JsonElement jsonElement, SerializableData.Instance instance, int slot) {
+        instance.setFloat(slot, readFloat(jsonElement));
+    }
+
+    @Override
+    void receiveInto(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        instance.setFloat(slot, receiveFloat(buffer));
+    }
+
+    @Override
+    void sendFrom(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        sendFloat(buffer, instance.getFloat(slot));
+    }
+
+    private static float checkBounds(float value, float min, float max, String boundsMessage) {
+
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(boundsMessage + " (current value: " + value + ")");
+        }
+
+        return value;
+
+    }
+
+}
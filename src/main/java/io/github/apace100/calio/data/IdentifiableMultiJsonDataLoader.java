@@ -3,6 +3,7 @@ package io.github.apace100.calio.data;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
+import net.minecraft.resource.Resource;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.resource.ResourceType;
 import net.minecraft.resource.SinglePreparationResourceReloader;
@@ -10,6 +11,7 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.Util;
 import net.minecraft.util.profiler.Profiler;
 import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.parsers.json.JsonFormat;
 import org.quiltmc.parsers.json.JsonReader;
 import org.quiltmc.parsers.json.gson.GsonReader;
@@ -17,7 +19,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  *  Similar to {@link MultiJsonDataLoader}, except it provides a list of {@link MultiJsonDataContainer} that contains a map
@@ -37,6 +42,10 @@ public abstract class IdentifiableMultiJsonDataLoader extends SinglePreparationR
     private final String directoryName;
     private final Gson gson;
 
+    private boolean parallelPreparation;
+    private ParsedJsonCache jsonCache;
+    private Pipeline<?> pipeline;
+
     public IdentifiableMultiJsonDataLoader(Gson gson, String directoryName, ResourceType resourceType) {
         this.gson = gson;
         this.directoryName = directoryName;
@@ -46,43 +55,249 @@ public abstract class IdentifiableMultiJsonDataLoader extends SinglePreparationR
     @Override
     protected MultiJsonDataContainer prepare(ResourceManager manager, Profiler profiler) {
 
-        MultiJsonDataContainer result = new MultiJsonDataContainer();
+        profiler.push(directoryName);
+        profiler.push("find_resources");
+
+        List<DataFile> dataFiles = new ArrayList<>();
         manager.findResources(directoryName, this::hasValidExtension).keySet().forEach(fileId -> {
 
             Identifier id = this.trim(fileId);
             String fileExtension = "." + FilenameUtils.getExtension(fileId.getPath());
 
             JsonFormat jsonFormat = VALID_EXTENSIONS.get(fileExtension);
-            manager.getAllResources(fileId).forEach(resource -> {
+            manager.getAllResources(fileId).forEach(resource -> dataFiles.add(new DataFile(fileId, id, jsonFormat, resource)));
+
+        });
+
+        if (jsonCache != null) {
+            jsonCache.load(manager);
+        }
+
+        profiler.swap("parse");
+
+        MultiJsonDataContainer result = new MultiJsonDataContainer();
+        if (pipeline != null) {
+            preparePipelined(dataFiles, pipeline, result);
+            profiler.pop();
+            profiler.pop();
+            return result;
+        }
+
+        List<JsonElement> jsonElements = ParallelPreparation.map(dataFiles, parallelPreparation, this::parse);
+
+        if (jsonCache != null) {
+            jsonCache.save();
+        }
+
+        profiler.pop();
+        profiler.pop();
+
+        for (int i = 0; i < dataFiles.size(); i++) {
+
+            DataFile dataFile = dataFiles.get(i);
+            JsonElement jsonElement = jsonElements.get(i);
+
+            if (jsonElement != null) {
+                result
+                    .computeIfAbsent(dataFile.id(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(dataFile.resource().getResourcePackName(), k -> new ArrayList<>())
+                    .add(jsonElement);
+            }
+
+        }
+
+        return result;
+
+    }
 
-                String packName = resource.getResourcePackName();
-                try (BufferedReader resourceReader = resource.getReader()) {
+    /**
+     *  Parses the data files and decodes them with the specified decoder as soon as all data files of their ID have been
+     *  parsed, after which the parsed JSON trees of that ID are released. This way, only the JSON trees of the IDs that
+     *  are still being parsed are kept in memory, instead of the JSON trees of all data files.
+     */
+    private <R> void preparePipelined(List<DataFile> dataFiles, Pipeline<R> pipeline, MultiJsonDataContainer result) {
 
-                    GsonReader gsonReader = new GsonReader(JsonReader.create(resourceReader, jsonFormat));
-                    JsonElement jsonElement = gson.fromJson(gsonReader, JsonElement.class);
+        //  The data files are listed ID by ID, so the data files of an ID are usually next to each other
+        Map<Identifier, int[]> indicesById = new LinkedHashMap<>();
+        for (int i = 0; i < dataFiles.size(); i++) {
 
-                    if (jsonElement == null) {
-                        throw new JsonParseException("JSON cannot be null! Caused by either the file being empty or a syntax error when being parsed by " + gsonReader);
-                    }
+            int[] indices = indicesById.get(dataFiles.get(i).id());
+            int[] newIndices = indices == null
+                ? new int[] {i}
+                : Arrays.copyOf(indices, indices.length + 1);
 
-                    result
-                        .computeIfAbsent(id, k -> new LinkedHashMap<>())
-                        .computeIfAbsent(packName, k -> new LinkedList<>())
-                        .add(jsonElement);
+            newIndices[newIndices.length - 1] = i;
+            indicesById.put(dataFiles.get(i).id(), newIndices);
 
-                } catch (Exception e) {
-                    String filePath = packName + "/" + resourceType.getDirectory() + "/" + fileId.getNamespace() + "/" + fileId.getPath();
-                    LOGGER.error("Couldn't parse data file \"{}\" from \"{}\": {}", id, filePath, e.getMessage());
+        }
+
+        Map<Identifier, AtomicInteger> remainingById = new HashMap<>();
+        indicesById.forEach((id, indices) -> remainingById.put(id, new AtomicInteger(indices.length)));
+
+        JsonElement[] jsonElements = new JsonElement[dataFiles.size()];
+        List<R> decodedObjects = new ArrayList<>(Collections.nCopies(dataFiles.size(), null));
+
+        List<Integer> fileIndices = new ArrayList<>(dataFiles.size());
+        for (int i = 0; i < dataFiles.size(); i++) {
+            fileIndices.add(i);
+        }
+
+        ParallelPreparation.map(fileIndices, parallelPreparation, index -> {
+
+            DataFile dataFile = dataFiles.get(index);
+            jsonElements[index] = parse(dataFile);
+
+            //  The thread that parsed the last data file of an ID decodes all data files of that ID; decrementing the
+            //  counter makes the JSON trees parsed by the other threads visible to it
+            if (remainingById.get(dataFile.id()).decrementAndGet() != 0) {
+                return null;
+            }
+
+            for (int i : indicesById.get(dataFile.id())) {
+
+                JsonElement jsonElement = jsonElements[i];
+                jsonElements[i] = null;
+
+                if (jsonElement != null) {
+                    decodedObjects.set(i, decode(pipeline, dataFiles.get(i), jsonElement));
                 }
 
-            });
+            }
+
+            return null;
 
         });
 
-        return result;
+        if (jsonCache != null) {
+            jsonCache.save();
+        }
+
+        for (int i = 0; i < dataFiles.size(); i++) {
+
+            R decodedObject = decodedObjects.get(i);
+            if (decodedObject != null) {
+                result.addDecoded(dataFiles.get(i).resource().getResourcePackName(), dataFiles.get(i).id(), decodedObject);
+            }
+
+        }
 
     }
 
+    @Nullable
+    private <R> R decode(Pipeline<R> pipeline, DataFile dataFile, JsonElement jsonElement) {
+
+        try {
+            //  Checked here, so that a raw decoder can't put objects of another class into the container
+            return pipeline.decodedClass().cast(pipeline.decoder().decode(dataFile.resource().getResourcePackName(), dataFile.id(), jsonElement));
+        } catch (Exception e) {
+
+            if (pipeline.errorHandler() != null) {
+                pipeline.errorHandler().accept(dataFile.id(), e);
+                return null;
+            }
+
+            Identifier fileId = dataFile.fileId();
+            String filePath = dataFile.resource().getResourcePackName() + "/" + resourceType.getDirectory() + "/" + fileId.getNamespace() + "/" + fileId.getPath();
+            LOGGER.error("Couldn't decode data file \"{}\" from \"{}\": {}", dataFile.id(), filePath, e.getMessage());
+            return null;
+
+        }
+
+    }
+
+    @Nullable
+    private JsonElement parse(DataFile dataFile) {
+
+        Identifier fileId = dataFile.fileId();
+        String packName = dataFile.resource().getResourcePackName();
+
+        ReloadProfiler.Sample sample = ReloadProfiler.begin();
+        try {
+
+            if (jsonCache != null) {
+                return jsonCache.getOrParse(dataFile.resource(), fileId, reader -> parse(reader, dataFile.jsonFormat()));
+            }
+
+            try (BufferedReader resourceReader = dataFile.resource().getReader()) {
+                return parse(resourceReader, dataFile.jsonFormat());
+            }
+
+        } catch (Exception e) {
+            String filePath = packName + "/" + resourceType.getDirectory() + "/" + fileId.getNamespace() + "/" + fileId.getPath();
+            LOGGER.error("Couldn't parse data file \"{}\" from \"{}\": {}", dataFile.id(), filePath, e.getMessage());
+            return null;
+        } finally {
+            ReloadProfiler.recordParse(sample, directoryName, packName, fileId);
+        }
+
+    }
+
+    private JsonElement parse(Reader reader, JsonFormat jsonFormat) {
+
+        GsonReader gsonReader = new GsonReader(JsonReader.create(reader, jsonFormat));
+        JsonElement jsonElement = gson.fromJson(gsonReader, JsonElement.class);
+
+        if (jsonElement == null) {
+            throw new JsonParseException("JSON cannot be null! Caused by either the file being empty or a syntax error when being parsed by " + gsonReader);
+        }
+
+        return jsonElement;
+
+    }
+
+    /**
+     *  Sets whether the data files should be parsed across a pool of worker threads during preparation. The resulting
+     *  {@link MultiJsonDataContainer} is the same as when parsing the files one after another.
+     */
+    public void setParallelPreparation(boolean parallelPreparation) {
+        this.parallelPreparation = parallelPreparation;
+    }
+
+    public boolean isParallelPreparation() {
+        return parallelPreparation;
+    }
+
+    /**
+     *  Sets the cache used to skip parsing data files that didn't change since the last reload, or {@code null} to
+     *  always parse the data files.
+     */
+    public void setJsonCache(@Nullable ParsedJsonCache jsonCache) {
+        this.jsonCache = jsonCache;
+    }
+
+    @Nullable
+    public ParsedJsonCache getJsonCache() {
+        return jsonCache;
+    }
+
+    /**
+     *  Sets the decoder that turns the data files into objects during preparation, or {@code null} to keep the parsed JSON
+     *  trees until {@link #apply} instead. With a decoder, the data files of an ID are decoded as soon as all of them have
+     *  been parsed and their JSON trees are released right away, so the peak memory use of a reload no longer grows with
+     *  the total size of the data files. The decoded objects are provided by {@link MultiJsonDataContainer#forEachDecoded}
+     *  in the same order as the JSON trees would have been, while the container itself stays empty.<br>
+     *  Note that the decoder runs on the thread preparing the reload, or on the worker threads if the preparation is
+     *  {@linkplain #setParallelPreparation(boolean) parallel}, so it must not depend on state that is only available
+     *  when applying the reload.
+     *
+     *  @param decodedClass     the class of the decoded objects, which they are retrieved with from the container
+     *  @param decoder          the decoder, or {@code null} to disable decoding during preparation
+     *  @param errorHandler     the handler of the exceptions thrown by the decoder (on the same thread as the decoder),
+     *                          or {@code null} to log them along with the path of the data file
+     */
+    public <R> void setPipelineDecoder(Class<R> decodedClass, @Nullable Decoder<R> decoder, @Nullable BiConsumer<Identifier, Exception> errorHandler) {
+        this.pipeline = decoder != null
+            ? new Pipeline<>(decodedClass, decoder, errorHandler)
+            : null;
+    }
+
+    @Nullable
+    public Decoder<?> getPipelineDecoder() {
+        return pipeline != null
+            ? pipeline.decoder()
+            : null;
+    }
+
     protected Identifier trim(Identifier fileId) {
         String path = FilenameUtils.removeExtension(fileId.getPath()).substring(directoryName.length() + 1);
         return new Identifier(fileId.getNamespace(), path);
@@ -94,4 +309,25 @@ public abstract class IdentifiableMultiJsonDataLoader extends SinglePreparationR
             .anyMatch(suffix -> fileId.getPath().endsWith(suffix));
     }
 
+    @FunctionalInterface
+    public interface Decoder<R> {
+
+        /**
+         *  @return     the decoded object, or {@code null} to skip the data file. An exception thrown by the decoder is
+         *              passed to the error handler (or logged along with the path of the data file), and the data file
+         *              is skipped.
+         */
+        @Nullable
+        R decode(String packName, Identifier id, JsonElement jsonElement) throws Exception;
+
+    }
+
+    private record Pipeline<R>(Class<R> decodedClass, Decoder<R> decoder, @Nullable BiConsumer<Identifier, Exception> errorHandler) {
+
+    }
+
+    private record DataFile(Identifier fileId, Identifier id, JsonFormat jsonFormat, Resource resource) {
+
+    }
+
 }
@@ -0,0 +1,72 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ *  A data type for integers that stores them in the primitive slots of an {@link SerializableData.Instance}, so that
+ *  reading, receiving and sending them doesn't box them. The bounds (if any) are checked when reading from JSON.
+ */
+public class IntDataType extends SerializableDataType<Integer> {
+
+    private final int min;
+    private final int max;
+    private final String boundsMessage;
+
+    public IntDataType() {
+        this(Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+    }
+
+    public IntDataType(int min, int max, String boundsMessage) {
+        super(
+            Integer.class,
+            SyncPacketByteBuf::writeSignedInt,
+            SyncPacketByteBuf::readSignedInt,
+            jsonElement -> checkBounds(jsonElement.getAsInt(), min, max, boundsMessage),
+            JsonPrimitive::new
+        );
+        this.min = min;
+        this.max = max;
+        this.boundsMessage = boundsMessage;
+    }
+
+    public int readInt(JsonElement jsonElement) {
+        return checkBounds(jsonElement.getAsInt(), min, max, boundsMessage);
+    }
+
+    public int receiveInt(PacketByteBuf buffer) {
+        return SyncPacketByteBuf.readSignedInt(buffer);
+    }
+
+    public void sendInt(PacketByteBuf buffer, int value) {
+        SyncPacketByteBuf.writeSignedInt(buffer, value);
+    }
+
+    @Override
+    void readInto(JsonElement jsonElement, SerializableData.Instance instance, int slot) {
+        instance.setInt(slot, readInt(jsonElement));
+    }
+
+    @Override
+    void receiveInto(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        instance.setInt(slot, receiveInt(buffer));
+    }
+
+    @Override
+    void sendFrom(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        sendInt(buffer, instance.getInt(slot));
+    }
+
+    private static int checkBounds(int value, int min, int max, String boundsMessage) {
+
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(boundsMessage + " (current value: " + value + ")");
+        }
+
+        return value;
+
+    }
+
+}
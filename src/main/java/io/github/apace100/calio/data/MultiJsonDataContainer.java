@@ -3,17 +3,53 @@ package io.github.apace100.calio.data;
 import com.google.gson.JsonElement;
 import net.minecraft.util.Identifier;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 
 public class MultiJsonDataContainer extends LinkedHashMap<Identifier, LinkedHashMap<String, List<JsonElement>>> {
 
+    private final LinkedHashMap<Identifier, LinkedHashMap<String, List<Object>>> decodedObjects = new LinkedHashMap<>();
+
     public void forEach(Processor processor) {
         super.forEach((id, packedJsonData) ->
             packedJsonData.forEach((packName, jsonElements) ->
                 jsonElements.forEach(jsonElement -> processor.process(packName, id, jsonElement))));
     }
 
+    /**
+     *  Adds an object that was decoded from a data file during preparation, see
+     *  {@link IdentifiableMultiJsonDataLoader#setPipelineDecoder}.
+     */
+    public void addDecoded(String packName, Identifier id, Object decodedObject) {
+        decodedObjects
+            .computeIfAbsent(id, k -> new LinkedHashMap<>())
+            .computeIfAbsent(packName, k -> new ArrayList<>())
+            .add(decodedObject);
+    }
+
+    public boolean hasDecoded() {
+        return !decodedObjects.isEmpty();
+    }
+
+    /**
+     *  Processes the objects that were decoded during preparation, grouped by ID and pack like the JSON data.
+     *
+     *  @param decodedClass     the class the objects were decoded as, see
+     *                          {@link IdentifiableMultiJsonDataLoader#setPipelineDecoder}
+     *  @throws ClassCastException  if an object isn't an instance of the specified class
+     */
+    public <T> void forEachDecoded(Class<T> decodedClass, DecodedProcessor<T> processor) {
+        decodedObjects.forEach((id, packedObjects) ->
+            packedObjects.forEach((packName, objects) ->
+                objects.forEach(object -> processor.process(packName, id, decodedClass.cast(object)))));
+    }
+
+    @FunctionalInterface
+    public interface DecodedProcessor<T> {
+        void process(String packName, Identifier id, T decodedObject);
+    }
+
     @FunctionalInterface
     public interface Processor {
         void process(String packName, Identifier id, JsonElement jsonElement);
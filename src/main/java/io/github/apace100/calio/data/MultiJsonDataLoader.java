@@ -2,13 +2,16 @@ package io.github.apace100.calio.data;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonSyntaxException;
+import net.minecraft.resource.Resource;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.resource.SinglePreparationResourceReloader;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.Util;
 import net.minecraft.util.profiler.Profiler;
 import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.parsers.json.JsonFormat;
 import org.quiltmc.parsers.json.JsonReader;
 import org.quiltmc.parsers.json.gson.GsonReader;
@@ -16,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -39,6 +43,9 @@ public abstract class MultiJsonDataLoader extends SinglePreparationResourceReloa
     private final Gson gson;
     private final String directoryName;
 
+    private boolean parallelPreparation;
+    private ParsedJsonCache jsonCache;
+
     public MultiJsonDataLoader(Gson gson, String directoryName) {
         this.gson = gson;
         this.directoryName = directoryName;
@@ -47,41 +54,135 @@ public abstract class MultiJsonDataLoader extends SinglePreparationResourceReloa
     @Override
     protected Map<Identifier, List<JsonElement>> prepare(ResourceManager manager, Profiler profiler) {
 
-        Map<Identifier, List<JsonElement>> result = new HashMap<>();
+        profiler.push(directoryName);
+        profiler.push("find_resources");
+
+        List<DataFile> dataFiles = new ArrayList<>();
         manager.findResources(directoryName, this::hasValidExtension).keySet().forEach(fileId -> {
 
             Identifier id = trim(fileId);
             String fileExtension = "." + FilenameUtils.getExtension(fileId.getPath());
 
-            JsonFormat jsonFormat = VALID_EXTENSIONS.get(fileExtension);
-            manager.getAllResources(fileId).forEach(resource -> {
+            manager.getAllResources(fileId).forEach(resource -> dataFiles.add(new DataFile(fileId, id, fileExtension, resource)));
 
-                String packName = resource.getResourcePackName();
-                try (BufferedReader resourceReader = resource.getReader()) {
+        });
 
-                    if (jsonFormat == null) {
-                        throw new JsonSyntaxException("The file extension \"" + fileExtension + "\" is not supported");
-                    }
+        if (jsonCache != null) {
+            jsonCache.load(manager);
+        }
 
-                    GsonReader gsonReader = new GsonReader(JsonReader.create(resourceReader, jsonFormat));
-                    JsonElement jsonElement = gson.fromJson(gsonReader, JsonElement.class);
+        profiler.swap("parse");
 
-                    result.computeIfAbsent(id, k -> new LinkedList<>())
-                        .add(jsonElement);
+        Map<Identifier, List<JsonElement>> result = new HashMap<>();
+        List<ParseResult> parseResults = ParallelPreparation.map(dataFiles, parallelPreparation, this::parse);
 
-                } catch (Exception e) {
-                    String filePath = packName + "/.../" + fileId.getNamespace() + "/" + fileId.getPath();
-                    LOGGER.error("Couldn't parse data file \"{}\" from \"{}\": {}", id, filePath, e.getMessage());
-                }
+        if (jsonCache != null) {
+            jsonCache.save();
+        }
 
-            });
+        profiler.pop();
+        profiler.pop();
 
-        });
+        for (int i = 0; i < dataFiles.size(); i++) {
+            ParseResult parseResult = parseResults.get(i);
+            //  An empty file is parsed as a null element, which is still added to the list
+            if (parseResult.success()) {
+                result.computeIfAbsent(dataFiles.get(i).id(), k -> new ArrayList<>())
+                    .add(parseResult.jsonElement());
+            }
+        }
 
         return result;
 
     }
 
+    private ParseResult parse(DataFile dataFile) {
+
+        Identifier fileId = dataFile.fileId();
+        String fileExtension = dataFile.fileExtension();
+
+        JsonFormat jsonFormat = VALID_EXTENSIONS.get(fileExtension);
+        String packName = dataFile.resource().getResourcePackName();
+
+        ReloadProfiler.Sample sample = ReloadProfiler.begin();
+        try {
+
+            if (jsonFormat == null) {
+                throw new JsonSyntaxException("The file extension \"" + fileExtension + "\" is not supported");
+            }
+
+            //  Empty files are parsed as null, which can't be cached
+            if (jsonCache != null) {
+
+                JsonElement jsonElement = jsonCache.getOrParse(dataFile.resource(), fileId, reader -> {
+                    JsonElement parsed = gson.fromJson(new GsonReader(JsonReader.create(reader, jsonFormat)), JsonElement.class);
+                    return parsed != null ? parsed : JsonNull.INSTANCE;
+                });
+
+                return ParseResult.of(jsonElement.isJsonNull() ? null : jsonElement);
+
+            }
+
+            try (BufferedReader resourceReader = dataFile.resource().getReader()) {
+                GsonReader gsonReader = new GsonReader(JsonReader.create(resourceReader, jsonFormat));
+                return ParseResult.of(gson.fromJson(gsonReader, JsonElement.class));
+            }
+
+        } catch (Exception e) {
+            String filePath = packName + "/.../" + fileId.getNamespace() + "/" + fileId.getPath();
+            LOGGER.error("Couldn't parse data file \"{}\" from \"{}\": {}", dataFile.id(), filePath, e.getMessage());
+            return ParseResult.FAILED;
+        } finally {
+            ReloadProfiler.recordParse(sample, directoryName, packName, fileId);
+        }
+
+    }
+
+    /**
+     *  Finds the data files of this loader without parsing them, so that they can be read as a token stream later (see
+     *  {@link SerializableData#read(JsonReader)}) instead of being kept as trees from preparation until application.
+     */
+    protected List<UnparsedDataFile> findUnparsedDataFiles(ResourceManager manager) {
+
+        List<UnparsedDataFile> dataFiles = new ArrayList<>();
+        manager.findResources(directoryName, this::hasValidExtension).keySet().forEach(fileId -> {
+
+            Identifier id = trim(fileId);
+            JsonFormat jsonFormat = VALID_EXTENSIONS.get("." + FilenameUtils.getExtension(fileId.getPath()));
+
+            manager.getAllResources(fileId).forEach(resource -> dataFiles.add(new UnparsedDataFile(fileId, id, jsonFormat, resource)));
+
+        });
+
+        return dataFiles;
+
+    }
+
+    /**
+     *  Sets whether the data files should be parsed across a pool of worker threads during preparation. The resulting
+     *  map is the same as when parsing the files one after another.
+     */
+    public void setParallelPreparation(boolean parallelPreparation) {
+        this.parallelPreparation = parallelPreparation;
+    }
+
+    public boolean isParallelPreparation() {
+        return parallelPreparation;
+    }
+
+    /**
+     *  Sets the cache used to skip parsing data files that didn't change since the last reload, or {@code null} to
+     *  always parse the data files.
+     */
+    public void setJsonCache(@Nullable ParsedJsonCache jsonCache) {
+        this.jsonCache = jsonCache;
+    }
+
+    @Nullable
+    public ParsedJsonCache getJsonCache() {
+        return jsonCache;
+    }
+
     private Identifier trim(Identifier id) {
         String path = FilenameUtils.removeExtension(id.getPath()).substring(directoryName.length() + 1);
         return new Identifier(id.getNamespace(), path);
@@ -93,4 +194,33 @@ public abstract class MultiJsonDataLoader extends SinglePreparationResourceReloa
             .anyMatch(suffix -> id.getPath().endsWith(suffix));
     }
 
+    private record DataFile(Identifier fileId, Identifier id, String fileExtension, Resource resource) {
+
+    }
+
+    /**
+     *  The result of parsing a data file: either the parsed element (which is null for an empty file), or a failure.
+     */
+    private record ParseResult(boolean success, @Nullable JsonElement jsonElement) {
+
+        private static final ParseResult FAILED = new ParseResult(false, null);
+
+        private static ParseResult of(@Nullable JsonElement jsonElement) {
+            return new ParseResult(true, jsonElement);
+        }
+
+    }
+
+    /**
+     *  A data file that wasn't parsed during preparation. Its contents are read with {@link #openReader()}, which must be
+     *  closed afterwards.
+     */
+    public record UnparsedDataFile(Identifier fileId, Identifier id, JsonFormat jsonFormat, Resource resource) {
+
+        public JsonReader openReader() throws IOException {
+            return JsonReader.create(resource.getReader(), jsonFormat);
+        }
+
+    }
+
 }
@@ -0,0 +1,69 @@
+package io.github.apace100.calio.data;
+
+import net.minecraft.util.math.MathHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ *  Runs the per-file work of the Calio data loaders (e.g: parsing) across a bounded pool of worker threads, while keeping
+ *  the results in the order the inputs were provided in, so that the loaders can assemble the same result as they would
+ *  when processing the files one after another.
+ */
+public final class ParallelPreparation {
+
+    private static final int PARALLELISM = MathHelper.clamp(Runtime.getRuntime().availableProcessors() - 1, 1, 8);
+    private static final ForkJoinPool WORKER_POOL = new ForkJoinPool(PARALLELISM, pool -> {
+
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("Calio-Preparation-" + thread.getPoolIndex());
+
+        return thread;
+
+    }, null, false);
+
+    private ParallelPreparation() {}
+
+    /**
+     *  Applies the specified function to each of the inputs, and returns the results in the same order as the inputs.
+     *
+     *  @param inputs       the inputs to process
+     *  @param parallel     whether the inputs should be processed by the worker pool, instead of the calling thread
+     *  @param function     the function to apply to each input; it should handle its own errors, since an exception thrown
+     *                      by it aborts the whole operation
+     *  @return             a list of the results, where the result at index {@code i} belongs to the input at index {@code i}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> List<R> map(List<T> inputs, boolean parallel, Function<T, R> function) {
+
+        if (!parallel || inputs.size() < 2) {
+
+            List<R> results = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                results.add(function.apply(input));
+            }
+
+            return results;
+
+        }
+
+        Object[] results = new Object[inputs.size()];
+        WORKER_POOL.submit(() -> IntStream.range(0, results.length)
+            .parallel()
+            .forEach(i -> results[i] = function.apply(inputs.get(i))))
+            .join();
+
+        return (List<R>) Arrays.asList(results);
+
+    }
+
+    public static int getParallelism() {
+        return PARALLELISM;
+    }
+
+}
@@ -0,0 +1,404 @@
+package io.github.apace100.calio.data;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.gson.*;
+import com.google.gson.internal.LazilyParsedNumber;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourcePack;
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ *  <p>An on-disk cache of parsed data files, keyed by the name of the pack that provides the file, the ID of the file and a
+ *  hash of its contents. Data files whose contents didn't change since the last reload are decoded from a compact binary
+ *  form, instead of being parsed again.</p>
+ *
+ *  <p>The whole cache is discarded if the list of packs changes (e.g: a pack was added, removed or reordered), and entries
+ *  that weren't used by the last reload are pruned when the cache is saved.</p>
+ */
+public class ParsedJsonCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParsedJsonCache.class);
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path cacheFile;
+
+    private final Map<String, Entry> usedEntries = new ConcurrentHashMap<>();
+    private Map<String, Entry> loadedEntries = new HashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private HashCode packSignature;
+
+    public ParsedJsonCache(String name) {
+        this(FabricLoader.getInstance().getGameDir()
+            .resolve(".cache")
+            .resolve("calio")
+            .resolve(name.replaceAll("[^a-z0-9_.-]", "_") + ".bin"));
+    }
+
+    public ParsedJsonCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     *  Loads the cache from disk and resets the hit/miss statistics. Should be called before the data files of a reload are
+     *  parsed.
+     *
+     *  @param manager  the resource manager of the reload, used to determine whether the list of packs changed
+     */
+    public void load(ResourceManager manager) {
+
+        this.packSignature = HASH_FUNCTION.hashString(manager.streamResourcePacks()
+            .map(ResourcePack::getName)
+            .collect(Collectors.joining("\n")), StandardCharsets.UTF_8);
+
+        this.usedEntries.clear();
+        this.loadedEntries = new HashMap<>();
+
+        this.hits.set(0);
+        this.misses.set(0);
+
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+
+            if (input.readInt() != FORMAT_VERSION || !HashCode.fromBytes(readBytes(input)).equals(packSignature)) {
+                return;
+            }
+
+            int count = readVarInt(input);
+            for (int i = 0; i < count; i++) {
+                String key = input.readUTF();
+                loadedEntries.put(key, new Entry(HashCode.fromBytes(readBytes(input)), readBytes(input)));
+            }
+
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't load parsed JSON cache \"{}\", discarding it: {}", cacheFile, e.getMessage());
+            loadedEntries = new HashMap<>();
+        }
+
+    }
+
+    /**
+     *  Returns the parsed contents of the specified resource, either from the cache if the contents of the resource didn't
+     *  change, or by parsing it with the specified parser. Safe to call from multiple threads.
+     */
+    public JsonElement getOrParse(Resource resource, Identifier fileId, Parser parser) throws IOException {
+
+        byte[] contents;
+        try (InputStream inputStream = resource.getInputStream()) {
+            contents = inputStream.readAllBytes();
+        }
+
+        String key = resource.getResourcePackName() + "|" + fileId;
+        HashCode hash = HASH_FUNCTION.hashBytes(contents);
+
+        Entry entry = loadedEntries.get(key);
+        if (entry != null && entry.hash().equals(hash)) {
+            try {
+
+                JsonElement jsonElement = BinaryJson.decode(entry.data());
+
+                usedEntries.put(key, entry);
+                hits.incrementAndGet();
+
+                return jsonElement;
+
+            } catch (Exception e) {
+                LOGGER.warn("Couldn't decode cached data file \"{}\", parsing it instead: {}", key, e.getMessage());
+            }
+        }
+
+        JsonElement jsonElement;
+        try (Reader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(contents), StandardCharsets.UTF_8))) {
+            jsonElement = parser.parse(reader);
+        }
+
+        usedEntries.put(key, new Entry(hash, BinaryJson.encode(jsonElement)));
+        misses.incrementAndGet();
+
+        return jsonElement;
+
+    }
+
+    /**
+     *  Saves the entries that were used since the cache was last loaded to disk, and logs the hit/miss statistics.
+     */
+    public void save() {
+
+        LOGGER.debug("Parsed JSON cache \"{}\": {} hit(s), {} miss(es)", cacheFile, getHits(), getMisses());
+        if (packSignature == null) {
+            return;
+        }
+
+        try {
+
+            Files.createDirectories(cacheFile.getParent());
+            Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+
+                output.writeInt(FORMAT_VERSION);
+                writeBytes(output, packSignature.asBytes());
+
+                writeVarInt(output, usedEntries.size());
+                for (Map.Entry<String, Entry> usedEntry : usedEntries.entrySet()) {
+                    output.writeUTF(usedEntry.getKey());
+                    writeBytes(output, usedEntry.getValue().hash().asBytes());
+                    writeBytes(output, usedEntry.getValue().data());
+                }
+
+            }
+
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't save parsed JSON cache \"{}\": {}", cacheFile, e.getMessage());
+        }
+
+        //  The loaded entries aren't needed until the next reload
+        loadedEntries = new HashMap<>();
+
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    private static int readVarInt(DataInput input) throws IOException {
+
+        int value = 0;
+        int position = 0;
+
+        byte currentByte;
+        do {
+
+            if (position >= 35) {
+                throw new IOException("VarInt is too big");
+            }
+
+            currentByte = input.readByte();
+            value |= (currentByte & 0x7F) << position;
+
+            position += 7;
+
+        } while ((currentByte & 0x80) != 0);
+
+        return value;
+
+    }
+
+    private static void writeVarInt(DataOutput output, int value) throws IOException {
+
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.writeByte(value);
+
+    }
+
+    private static byte[] readBytes(DataInput input) throws IOException {
+
+        byte[] bytes = new byte[readVarInt(input)];
+        input.readFully(bytes);
+
+        return bytes;
+
+    }
+
+    private static void writeBytes(DataOutput output, byte[] bytes) throws IOException {
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    @FunctionalInterface
+    public interface Parser {
+        JsonElement parse(Reader reader) throws IOException;
+    }
+
+    private record Entry(HashCode hash, byte[] data) {
+
+    }
+
+    /**
+     *  Encodes JSON trees into a compact binary form, where each string (including object keys) is only written once per
+     *  tree and referenced by index afterwards.
+     */
+    private static final class BinaryJson {
+
+        private static final int NULL = 0;
+        private static final int TRUE = 1;
+        private static final int FALSE = 2;
+        private static final int NUMBER = 3;
+        private static final int STRING = 4;
+        private static final int ARRAY = 5;
+        private static final int OBJECT = 6;
+
+        private static byte[] encode(JsonElement jsonElement) throws IOException {
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                write(output, jsonElement, new HashMap<>());
+            }
+
+            return bytes.toByteArray();
+
+        }
+
+        private static JsonElement decode(byte[] data) throws IOException {
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(data))) {
+                return read(input, new ArrayList<>());
+            }
+        }
+
+        private static void write(DataOutput output, JsonElement jsonElement, Map<String, Integer> strings) throws IOException {
+
+            if (jsonElement == null || jsonElement.isJsonNull()) {
+                output.writeByte(NULL);
+            }
+
+            else if (jsonElement instanceof JsonPrimitive jsonPrimitive) {
+
+                if (jsonPrimitive.isBoolean()) {
+                    output.writeByte(jsonPrimitive.getAsBoolean() ? TRUE : FALSE);
+                } else {
+                    output.writeByte(jsonPrimitive.isNumber() ? NUMBER : STRING);
+                    writeString(output, jsonPrimitive.getAsString(), strings);
+                }
+
+            }
+
+            else if (jsonElement instanceof JsonArray jsonArray) {
+
+                output.writeByte(ARRAY);
+                writeVarInt(output, jsonArray.size());
+
+                for (JsonElement element : jsonArray) {
+                    write(output, element, strings);
+                }
+
+            }
+
+            else if (jsonElement instanceof JsonObject jsonObject) {
+
+                output.writeByte(OBJECT);
+                writeVarInt(output, jsonObject.size());
+
+                for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+                    writeString(output, entry.getKey(), strings);
+                    write(output, entry.getValue(), strings);
+                }
+
+            }
+
+            else {
+                throw new IOException("Unsupported JSON element type: " + jsonElement.getClass().getName());
+            }
+
+        }
+
+        private static JsonElement read(DataInput input, List<String> strings) throws IOException {
+
+            int type = input.readUnsignedByte();
+            switch (type) {
+                case NULL:
+                    return JsonNull.INSTANCE;
+                case TRUE:
+                    return new JsonPrimitive(true);
+                case FALSE:
+                    return new JsonPrimitive(false);
+                case NUMBER:
+                    return new JsonPrimitive(new LazilyParsedNumber(readString(input, strings)));
+                case STRING:
+                    return new JsonPrimitive(readString(input, strings));
+                case ARRAY:
+
+                    int size = readVarInt(input);
+                    JsonArray jsonArray = new JsonArray(size);
+
+                    for (int i = 0; i < size; i++) {
+                        jsonArray.add(read(input, strings));
+                    }
+
+                    return jsonArray;
+
+                case OBJECT:
+
+                    int count = readVarInt(input);
+                    JsonObject jsonObject = new JsonObject();
+
+                    for (int i = 0; i < count; i++) {
+                        String key = readString(input, strings);
+                        jsonObject.add(key, read(input, strings));
+                    }
+
+                    return jsonObject;
+
+            }
+
+            throw new IOException("Unexpected JSON element type id \"" + type + "\" (allowed range: [0-6])");
+
+        }
+
+        private static void writeString(DataOutput output, String string, Map<String, Integer> strings) throws IOException {
+
+            Integer index = strings.get(string);
+            if (index != null) {
+                writeVarInt(output, index + 1);
+                return;
+            }
+
+            strings.put(string, strings.size());
+
+            writeVarInt(output, 0);
+            writeBytes(output, string.getBytes(StandardCharsets.UTF_8));
+
+        }
+
+        private static String readString(DataInput input, List<String> strings) throws IOException {
+
+            int reference = readVarInt(input);
+            if (reference != 0) {
+                return strings.get(reference - 1);
+            }
+
+            String string = new String(readBytes(input), StandardCharsets.UTF_8);
+            strings.add(string);
+
+            return string;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,326 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  Records where the time of a data pack reload is spent in the Calio data loaders: how long each data file took to parse
+ *  (and, by extension, each pack), how long the data objects of each factory took to decode, and how long each data object
+ *  registry took to apply. Data files that are read as a token stream straight into their data object are recorded
+ *  separately, since reading them can't be told apart from decoding them (which is recorded for their factory as well).
+ *  Where the JVM supports it, the bytes allocated by the thread doing the work are recorded too.<br>
+ *  Recording is disabled by default, since it keeps a record of every data file; it can be enabled with
+ *  {@link #setEnabled(boolean)}, the {@code calio.profileReload} system property, or the {@code /calio profile} command.
+ *  The records are cleared at the start of every reload, so they always describe the last one.
+ */
+public final class ReloadProfiler {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+
+    private static final ConcurrentLinkedQueue<FileRecord> FILES = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<FileRecord> STREAMED_FILES = new ConcurrentLinkedQueue<>();
+    private static final Map<String, Totals> FACTORIES = new ConcurrentHashMap<>();
+    private static final Map<String, Totals> REGISTRIES = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean("calio.profileReload");
+
+    private ReloadProfiler() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ReloadProfiler.enabled = enabled;
+    }
+
+    /**
+     *  Clears all records, e.g: at the start of a reload.
+     */
+    public static void reset() {
+        FILES.clear();
+        STREAMED_FILES.clear();
+        FACTORIES.clear();
+        REGISTRIES.clear();
+    }
+
+    /**
+     *  Starts measuring a unit of work on the current thread.
+     *
+     *  @return     the start of the measurement, or {@code null} if recording is disabled
+     */
+    @Nullable
+    public static Sample begin() {
+        return enabled
+            ? new Sample(System.nanoTime(), allocatedBytes())
+            : null;
+    }
+
+    /**
+     *  Records the time it took to parse a data file, measured since the specified sample.
+     *
+     *  @param sample       the sample returned by {@link #begin()}; nothing is recorded if it is null
+     *  @param loader       the directory the loader loads its data files from
+     *  @param pack         the name of the pack the data file is from
+     *  @param fileId       the identifier of the data file
+     */
+    public static void recordParse(@Nullable Sample sample, String loader, String pack, Identifier fileId) {
+        if (sample != null) {
+            FILES.add(new FileRecord(loader, pack, fileId.toString(), System.nanoTime() - sample.nanos(), allocatedBytes() - sample.bytes()));
+        }
+    }
+
+    /**
+     *  Records the time it took to read a data file as a token stream and decode it into its data object, measured since
+     *  the specified sample. This is kept apart from the parse times, since the decoding is included in the decode times
+     *  of the factory as well.
+     *
+     *  @param sample       the sample returned by {@link #begin()}; nothing is recorded if it is null
+     *  @param loader       the directory the loader loads its data files from
+     *  @param pack         the name of the pack the data file is from
+     *  @param fileId       the identifier of the data file
+     */
+    public static void recordReadDecode(@Nullable Sample sample, String loader, String pack, Identifier fileId) {
+        if (sample != null) {
+            STREAMED_FILES.add(new FileRecord(loader, pack, fileId.toString(), System.nanoTime() - sample.nanos(), allocatedBytes() - sample.bytes()));
+        }
+    }
+
+    /**
+     *  Records the time it took to decode a data object with the specified factory, measured since the specified sample.
+     */
+    public static void recordDecode(@Nullable Sample sample, Identifier registryId, @Nullable Identifier factoryId) {
+        if (sample != null) {
+            String key = registryId + " " + (factoryId != null ? factoryId.toString() : "<default>");
+            FACTORIES.computeIfAbsent(key, k -> new Totals()).add(System.nanoTime() - sample.nanos(), allocatedBytes() - sample.bytes());
+        }
+    }
+
+    /**
+     *  Records the time it took to apply the specified registry, measured since the specified sample.
+     */
+    public static void recordApply(@Nullable Sample sample, Identifier registryId) {
+        if (sample != null) {
+            REGISTRIES.computeIfAbsent(registryId.toString(), k -> new Totals()).add(System.nanoTime() - sample.nanos(), allocatedBytes() - sample.bytes());
+        }
+    }
+
+    /**
+     *  Returns a summary of the records, each list sorted by descending time.
+     */
+    public static Report getReport() {
+
+        List<FileRecord> files = new ArrayList<>(FILES);
+        files.sort(Comparator.comparingLong(FileRecord::nanos).reversed());
+
+        List<FileRecord> streamedFiles = new ArrayList<>(STREAMED_FILES);
+        streamedFiles.sort(Comparator.comparingLong(FileRecord::nanos).reversed());
+
+        Map<String, Totals> packTotals = new HashMap<>();
+        for (FileRecord file : files) {
+            packTotals.computeIfAbsent(file.pack(), k -> new Totals()).add(file.nanos(), file.bytes());
+        }
+
+        return new Report(files, streamedFiles, toEntries(packTotals), toEntries(FACTORIES), toEntries(REGISTRIES));
+
+    }
+
+    private static List<Entry> toEntries(Map<String, Totals> totals) {
+
+        List<Entry> entries = new ArrayList<>(totals.size());
+        totals.forEach((name, total) -> entries.add(new Entry(name, total.count.sum(), total.nanos.sum(), total.bytes.sum())));
+
+        entries.sort(Comparator.comparingLong(Entry::nanos).reversed());
+        return entries;
+
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null
+            ? THREADS.getCurrentThreadAllocatedBytes()
+            : 0L;
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+
+        try {
+
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if (threadBean instanceof com.sun.management.ThreadMXBean sunThreadBean && sunThreadBean.isThreadAllocatedMemorySupported()) {
+                sunThreadBean.setThreadAllocatedMemoryEnabled(true);
+                return sunThreadBean;
+            }
+
+        } catch (Throwable ignored) {
+            //  Not supported by this JVM; allocations are reported as 0
+        }
+
+        return null;
+
+    }
+
+    public record Sample(long nanos, long bytes) {
+
+    }
+
+    public record FileRecord(String loader, String pack, String file, long nanos, long bytes) {
+
+    }
+
+    /**
+     *  @param name     the name of the pack, the registry and factory ID, or the registry ID
+     *  @param count    the number of files, data objects or reloads the totals are from
+     */
+    public record Entry(String name, long count, long nanos, long bytes) {
+
+    }
+
+    /**
+     *  @param files            the parsed data files
+     *  @param streamedFiles    the data files that were read and decoded as a token stream
+     *  @param packs            the parse totals of each pack
+     */
+    public record Report(List<FileRecord> files, List<FileRecord> streamedFiles, List<Entry> packs, List<Entry> factories, List<Entry> registries) {
+
+        public long totalParseNanos() {
+            return files.stream().mapToLong(FileRecord::nanos).sum();
+        }
+
+        public long totalReadDecodeNanos() {
+            return streamedFiles.stream().mapToLong(FileRecord::nanos).sum();
+        }
+
+        public void writeJson(Path path) throws IOException {
+
+            JsonObject jsonObject = new JsonObject();
+            jsonObject.add("registries", toJson(registries));
+            jsonObject.add("factories", toJson(factories));
+            jsonObject.add("packs", toJson(packs));
+
+            jsonObject.add("files", filesToJson(files));
+            jsonObject.add("streamed_files", filesToJson(streamedFiles));
+
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                GSON.toJson(jsonObject, writer);
+            }
+
+        }
+
+        /**
+         *  Writes all records as rows of the form {@code kind,loader,name,count,nanos,bytes}, where the kind is one of
+         *  {@code registry}, {@code factory}, {@code pack}, {@code file} or {@code streamed_file}.
+         */
+        public void writeCsv(Path path) throws IOException {
+
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+
+                writer.write("kind,loader,name,count,nanos,bytes\n");
+                writeCsv(writer, "registry", registries);
+                writeCsv(writer, "factory", factories);
+                writeCsv(writer, "pack", packs);
+
+                writeCsvFiles(writer, "file", files);
+                writeCsvFiles(writer, "streamed_file", streamedFiles);
+
+            }
+
+        }
+
+        private static void writeCsv(Writer writer, String kind, List<Entry> entries) throws IOException {
+            for (Entry entry : entries) {
+                writer.write(kind + ",," + escape(entry.name()) + "," + entry.count() + "," + entry.nanos() + "," + entry.bytes() + "\n");
+            }
+        }
+
+        private static void writeCsvFiles(Writer writer, String kind, List<FileRecord> files) throws IOException {
+            for (FileRecord file : files) {
+                writer.write(kind + "," + escape(file.loader()) + "," + escape(file.pack() + "/" + file.file()) + ",1," + file.nanos() + "," + file.bytes() + "\n");
+            }
+        }
+
+        private static String escape(String value) {
+            return value.contains(",") || value.contains("\"")
+                ? "\"" + value.replace("\"", "\"\"") + "\""
+                : value;
+        }
+
+        private static JsonArray filesToJson(List<FileRecord> files) {
+
+            JsonArray filesJson = new JsonArray(files.size());
+            for (FileRecord file : files) {
+
+                JsonObject fileJson = new JsonObject();
+                fileJson.addProperty("loader", file.loader());
+                fileJson.addProperty("pack", file.pack());
+                fileJson.addProperty("file", file.file());
+                fileJson.addProperty("nanos", file.nanos());
+                fileJson.addProperty("bytes", file.bytes());
+
+                filesJson.add(fileJson);
+
+            }
+
+            return filesJson;
+
+        }
+
+        private static JsonArray toJson(List<Entry> entries) {
+
+            JsonArray jsonArray = new JsonArray(entries.size());
+            for (Entry entry : entries) {
+
+                JsonObject entryJson = new JsonObject();
+                entryJson.addProperty("name", entry.name());
+                entryJson.addProperty("count", entry.count());
+                entryJson.addProperty("nanos", entry.nanos());
+                entryJson.addProperty("bytes", entry.bytes());
+
+                jsonArray.add(entryJson);
+
+            }
+
+            return jsonArray;
+
+        }
+
+    }
+
+    private static final class Totals {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        private void add(long nanos, long bytes) {
+            this.count.increment();
+            this.nanos.add(nanos);
+            this.bytes.add(bytes);
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ *  Reads, receives and sends the instances of a single schema of a {@link SerializableData}, in the same format as the
+ *  generic implementation. Subclasses are generated by {@link SchemaCodecGenerator}; the static methods of this class are
+ *  the helpers the generated code calls into.
+ */
+abstract class SchemaCodec {
+
+    abstract void read(JsonObject jsonObject, SerializableData.Instance instance);
+
+    abstract void receive(PacketByteBuf buffer, SerializableData.Instance instance);
+
+    abstract void send(PacketByteBuf buffer, SerializableData.Instance instance);
+
+    static void readDefault(SerializableData.Field<?> field, SerializableData.Instance instance, int slot, String name) {
+
+        if (!field.hasDefault()) {
+            throw new JsonSyntaxException("JSON requires field: " + name);
+        }
+
+        instance.set(slot, field.getDefault(instance));
+
+    }
+
+    static boolean isDefaultNull(SerializableData.Field<?> field, SerializableData.Instance instance) {
+        return field.getDefault(instance) == null;
+    }
+
+    static boolean hasValue(SerializableData.Instance instance, int slot) {
+        return instance.hasValue(slot);
+    }
+
+}
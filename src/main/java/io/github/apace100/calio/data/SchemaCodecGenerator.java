@@ -0,0 +1,340 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.PacketByteBuf;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  Generates a {@link SchemaCodec} for a schema as a hidden class, which handles every field in straight-line code. The data
+ *  type and field of each slot are constants of the generated class (loaded from its class data), so the JIT can inline
+ *  the data type of each field into the codec instead of dispatching through a megamorphic call site for all fields.<br>
+ *  Every field is wrapped in the same exception handlers as in {@link SerializableData}, so errors report the same path.
+ *  The names of types are taken from their classes rather than spelled out, since those are remapped at runtime.
+ */
+final class SchemaCodecGenerator implements Opcodes {
+
+    private static final String CODEC = Type.getInternalName(SchemaCodec.class);
+    private static final String DATA_TYPE = Type.getInternalName(SerializableDataType.class);
+    private static final String DATA_EXCEPTION = Type.getInternalName(DataException.class);
+
+    private static final String DATA_TYPE_DESC = Type.getDescriptor(SerializableDataType.class);
+    private static final String FIELD_DESC = Type.getDescriptor(SerializableData.Field.class);
+    private static final String INSTANCE_DESC = Type.getDescriptor(SerializableData.Instance.class);
+    private static final String BUFFER_DESC = Type.getDescriptor(PacketByteBuf.class);
+    private static final String JSON_OBJECT_DESC = Type.getDescriptor(JsonObject.class);
+    private static final String JSON_ELEMENT_DESC = Type.getDescriptor(JsonElement.class);
+    private static final String PHASE_DESC = Type.getDescriptor(DataException.Phase.class);
+
+    private static final Handle CLASS_DATA_AT = new Handle(
+        H_INVOKESTATIC,
+        Type.getInternalName(MethodHandles.class),
+        "classDataAt",
+        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;",
+        false
+    );
+
+    private final String className = CODEC.substring(0, CODEC.lastIndexOf('/') + 1) + "GeneratedSchemaCodec";
+
+    private final String[] names;
+    private final SerializableData.Field<?>[] fields;
+    private final SerializableData.PresenceFlag[] presenceFlags;
+
+    private SchemaCodecGenerator(String[] names, SerializableData.Field<?>[] fields, SerializableData.PresenceFlag[] presenceFlags) {
+        this.names = names;
+        this.fields = fields;
+        this.presenceFlags = presenceFlags;
+    }
+
+    static SchemaCodec generate(String[] names, SerializableData.Field<?>[] fields, SerializableData.PresenceFlag[] presenceFlags) throws Throwable {
+        return new SchemaCodecGenerator(names, fields, presenceFlags).generate();
+    }
+
+    private SchemaCodec generate() throws Throwable {
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                try {
+                    return super.getCommonSuperClass(type1, type2);
+                } catch (RuntimeException e) {
+                    return "java/lang/Object";
+                }
+            }
+
+            @Override
+            protected ClassLoader getClassLoader() {
+                return SchemaCodecGenerator.class.getClassLoader();
+            }
+
+        };
+
+        classWriter.visit(V17, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, CODEC, null);
+
+        MethodVisitor constructor = classWriter.visitMethod(0, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, CODEC, "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        generateRead(classWriter);
+        generateReceive(classWriter);
+        generateSend(classWriter);
+        classWriter.visitEnd();
+
+        //  The class data holds the data type and the field of each slot, in that order
+        List<Object> classData = new ArrayList<>(fields.length * 2);
+        for (SerializableData.Field<?> field : fields) {
+            classData.add(field.getDataType());
+            classData.add(field);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(classWriter.toByteArray(), Collections.unmodifiableList(classData), true);
+        return (SchemaCodec) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+
+    }
+
+    /**
+     *  Generates {@link SchemaCodec#read(JsonObject, SerializableData.Instance)}. Locals: 1 = JSON object, 2 = instance,
+     *  3 = JSON element of the current field.
+     */
+    private void generateRead(ClassWriter classWriter) {
+
+        MethodVisitor method = classWriter.visitMethod(0, "read", "(" + JSON_OBJECT_DESC + INSTANCE_DESC + ")V", null, null);
+        method.visitCode();
+
+        for (int slot = 0; slot < names.length; slot++) {
+
+            Label start = new Label();
+            Label end = new Label();
+            Label missing = new Label();
+
+            method.visitLabel(start);
+            method.visitVarInsn(ALOAD, 1);
+            method.visitLdcInsn(names[slot]);
+            method.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(JsonObject.class), "get", "(Ljava/lang/String;)" + JSON_ELEMENT_DESC, false);
+            method.visitVarInsn(ASTORE, 3);
+            method.visitVarInsn(ALOAD, 3);
+            method.visitJumpInsn(IFNULL, missing);
+
+            method.visitLdcInsn(dataType(slot));
+            method.visitVarInsn(ALOAD, 3);
+            method.visitVarInsn(ALOAD, 2);
+            pushInt(method, slot);
+            method.visitMethodInsn(INVOKEVIRTUAL, DATA_TYPE, "readInto", "(" + JSON_ELEMENT_DESC + INSTANCE_DESC + "I)V", false);
+            method.visitJumpInsn(GOTO, end);
+
+            method.visitLabel(missing);
+            method.visitLdcInsn(field(slot));
+            method.visitVarInsn(ALOAD, 2);
+            pushInt(method, slot);
+            method.visitLdcInsn(names[slot]);
+            method.visitMethodInsn(INVOKESTATIC, CODEC, "readDefault", "(" + FIELD_DESC + INSTANCE_DESC + "ILjava/lang/String;)V", false);
+
+            method.visitLabel(end);
+            generateHandlers(method, start, end, slot, DataException.Phase.READING);
+
+        }
+
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+    }
+
+    /**
+     *  Generates {@link SchemaCodec#receive(PacketByteBuf, SerializableData.Instance)}. Locals: 1 = buffer, 2 = instance.
+     */
+    private void generateReceive(ClassWriter classWriter) {
+
+        MethodVisitor method = classWriter.visitMethod(0, "receive", "(" + BUFFER_DESC + INSTANCE_DESC + ")V", null, null);
+        method.visitCode();
+
+        for (int slot = 0; slot < names.length; slot++) {
+
+            Label start = new Label();
+            Label end = new Label();
+            Label present = new Label();
+
+            method.visitLabel(start);
+            switch (presenceFlags[slot]) {
+                case NEVER -> {}
+                case ALWAYS -> {
+                    generateReadPresence(method, present);
+                    generateSetNull(method, slot);
+                    method.visitJumpInsn(GOTO, end);
+                }
+                case IF_DEFAULT_IS_NULL -> {
+                    generateIsDefaultNull(method, slot);
+                    method.visitJumpInsn(IFEQ, present);
+                    generateReadPresence(method, present);
+                    generateSetNull(method, slot);
+                    method.visitJumpInsn(GOTO, end);
+                }
+            }
+
+            method.visitLabel(present);
+            method.visitLdcInsn(dataType(slot));
+            method.visitVarInsn(ALOAD, 1);
+            method.visitVarInsn(ALOAD, 2);
+            pushInt(method, slot);
+            method.visitMethodInsn(INVOKEVIRTUAL, DATA_TYPE, "receiveInto", "(" + BUFFER_DESC + INSTANCE_DESC + "I)V", false);
+
+            method.visitLabel(end);
+            generateHandlers(method, start, end, slot, DataException.Phase.RECEIVING);
+
+        }
+
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+    }
+
+    /**
+     *  Generates {@link SchemaCodec#send(PacketByteBuf, SerializableData.Instance)}. Locals: 1 = buffer, 2 = instance,
+     *  3 = whether the current field has a value.
+     */
+    private void generateSend(ClassWriter classWriter) {
+
+        MethodVisitor method = classWriter.visitMethod(0, "send", "(" + BUFFER_DESC + INSTANCE_DESC + ")V", null, null);
+        method.visitCode();
+
+        for (int slot = 0; slot < names.length; slot++) {
+
+            Label start = new Label();
+            Label end = new Label();
+            Label writeValue = new Label();
+
+            method.visitLabel(start);
+            method.visitVarInsn(ALOAD, 2);
+            pushInt(method, slot);
+            method.visitMethodInsn(INVOKESTATIC, CODEC, "hasValue", "(" + INSTANCE_DESC + "I)Z", false);
+            method.visitVarInsn(ISTORE, 3);
+
+            switch (presenceFlags[slot]) {
+                case NEVER -> {}
+                case ALWAYS -> generateWritePresence(method);
+                case IF_DEFAULT_IS_NULL -> {
+                    generateIsDefaultNull(method, slot);
+                    method.visitJumpInsn(IFEQ, writeValue);
+                    generateWritePresence(method);
+                }
+            }
+
+            method.visitLabel(writeValue);
+            method.visitVarInsn(ILOAD, 3);
+            method.visitJumpInsn(IFEQ, end);
+            method.visitLdcInsn(dataType(slot));
+            method.visitVarInsn(ALOAD, 1);
+            method.visitVarInsn(ALOAD, 2);
+            pushInt(method, slot);
+            method.visitMethodInsn(INVOKEVIRTUAL, DATA_TYPE, "sendFrom", "(" + BUFFER_DESC + INSTANCE_DESC + "I)V", false);
+
+            method.visitLabel(end);
+            generateHandlers(method, start, end, slot, DataException.Phase.WRITING);
+
+        }
+
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+    }
+
+    /**
+     *  Generates the equivalent of {@code catch (DataException e) { throw e.prepend(name); } catch (Exception e) { throw new
+     *  DataException(phase, name, e); }} around the code of a field, followed by the label the next field starts at.
+     */
+    private void generateHandlers(MethodVisitor method, Label start, Label end, int slot, DataException.Phase phase) {
+
+        Label dataExceptionHandler = new Label();
+        Label exceptionHandler = new Label();
+        Label next = new Label();
+
+        method.visitTryCatchBlock(start, end, dataExceptionHandler, DATA_EXCEPTION);
+        method.visitTryCatchBlock(start, end, exceptionHandler, "java/lang/Exception");
+        method.visitJumpInsn(GOTO, next);
+
+        method.visitLabel(dataExceptionHandler);
+        method.visitLdcInsn(names[slot]);
+        method.visitMethodInsn(INVOKEVIRTUAL, DATA_EXCEPTION, "prepend", "(Ljava/lang/String;)L" + DATA_EXCEPTION + ";", false);
+        method.visitInsn(ATHROW);
+
+        method.visitLabel(exceptionHandler);
+        method.visitVarInsn(ASTORE, 4);
+        method.visitTypeInsn(NEW, DATA_EXCEPTION);
+        method.visitInsn(DUP);
+        method.visitFieldInsn(GETSTATIC, Type.getInternalName(DataException.Phase.class), phase.name(), PHASE_DESC);
+        method.visitLdcInsn(names[slot]);
+        method.visitVarInsn(ALOAD, 4);
+        method.visitMethodInsn(INVOKESPECIAL, DATA_EXCEPTION, "<init>", "(" + PHASE_DESC + "Ljava/lang/String;Ljava/lang/Exception;)V", false);
+        method.visitInsn(ATHROW);
+
+        method.visitLabel(next);
+
+    }
+
+    private void generateReadPresence(MethodVisitor method, Label present) {
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(ByteBuf.class), "readBoolean", "()Z", false);
+        method.visitJumpInsn(IFNE, present);
+    }
+
+    private void generateWritePresence(MethodVisitor method) {
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(ILOAD, 3);
+        method.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(ByteBuf.class), "writeBoolean", "(Z)" + Type.getDescriptor(ByteBuf.class), false);
+        method.visitInsn(POP);
+    }
+
+    private void generateSetNull(MethodVisitor method, int slot) {
+        method.visitVarInsn(ALOAD, 2);
+        pushInt(method, slot);
+        method.visitInsn(ACONST_NULL);
+        method.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(SerializableData.Instance.class), "set", "(ILjava/lang/Object;)V", false);
+    }
+
+    private void generateIsDefaultNull(MethodVisitor method, int slot) {
+        method.visitLdcInsn(field(slot));
+        method.visitVarInsn(ALOAD, 2);
+        method.visitMethodInsn(INVOKESTATIC, CODEC, "isDefaultNull", "(" + FIELD_DESC + INSTANCE_DESC + ")Z", false);
+    }
+
+    private static ConstantDynamic dataType(int slot) {
+        return new ConstantDynamic("_", DATA_TYPE_DESC, CLASS_DATA_AT, slot * 2);
+    }
+
+    private static ConstantDynamic field(int slot) {
+        return new ConstantDynamic("_", FIELD_DESC, CLASS_DATA_AT, slot * 2 + 1);
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value <= 5) {
+            method.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            method.visitIntInsn(SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+
+}
@@ -1,15 +1,25 @@
 package io.github.apace100.calio.data;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import io.github.apace100.calio.Calio;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.entity.attribute.EntityAttributeModifier;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.parsers.json.JsonReader;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -22,34 +32,98 @@ public class SerializableData {
     // Should be set to the current path of the file that is being read. Allows using * in identifiers.
     public static String CURRENT_PATH;
 
+    //  The ID of the file that is being read on the current thread, if it's read off the thread that applies reloads;
+    //  takes precedence over CURRENT_NAMESPACE and CURRENT_PATH, which can't be shared between threads
+    private static final ThreadLocal<Identifier> CURRENT_ID = new ThreadLocal<>();
+
     private final LinkedHashMap<String, Field<?>> dataFields = new LinkedHashMap<>();
 
+    //  Compiled lazily from the data fields, and discarded whenever a field is added
+    private Schema schema;
+
+    /**
+     *  Sets the ID of the file that is being read on the current thread, or {@code null} once it has been read. Used
+     *  instead of {@link #CURRENT_NAMESPACE} and {@link #CURRENT_PATH} when files are read on multiple threads at once.
+     */
+    public static void setCurrentId(@Nullable Identifier id) {
+        if (id != null) {
+            CURRENT_ID.set(id);
+        } else {
+            CURRENT_ID.remove();
+        }
+    }
+
+    @Nullable
+    public static String getCurrentNamespace() {
+        Identifier id = CURRENT_ID.get();
+        return id != null ? id.getNamespace() : CURRENT_NAMESPACE;
+    }
+
+    @Nullable
+    public static String getCurrentPath() {
+        Identifier id = CURRENT_ID.get();
+        return id != null ? id.getPath() : CURRENT_PATH;
+    }
+
+    //  Whether schemas generate a codec class (see SchemaCodecGenerator) instead of using the generic implementation
+    private static volatile boolean generatedCodecs = Boolean.getBoolean("calio.generatedCodecs");
+
+    /**
+     *  Sets whether a codec class is generated for each serializable data, which reads, receives and sends its instances
+     *  in straight-line code instead of looping over the fields. The format and the errors are the same either way. This is
+     *  disabled by default, and can also be enabled with the {@code calio.generatedCodecs} system property.
+     *
+     *  @param enabled  whether codecs should be generated
+     */
+    public static void setGeneratedCodecs(boolean enabled) {
+        generatedCodecs = enabled;
+    }
+
     public SerializableData add(String name, SerializableDataType<?> type) {
         dataFields.put(name, new Field<>(type));
+        schema = null;
         return this;
     }
 
     public <T> SerializableData add(String name, SerializableDataType<T> type, T defaultValue) {
         dataFields.put(name, new Field<>(type, defaultValue));
+        schema = null;
         return this;
     }
 
     public <T> SerializableData addFunctionedDefault(String name, SerializableDataType<T> type, Function<Instance, T> defaultFunction) {
         dataFields.put(name, new Field<>(type, defaultFunction));
+        schema = null;
         return this;
     }
 
     public void write(PacketByteBuf buffer, Instance instance) {
-        dataFields.forEach((name, field) -> {
+
+        Schema schema = schema();
+        if (SyncPacketByteBuf.isCompact(buffer)) {
+            writeCompact(buffer, schema, instance);
+            return;
+        }
+
+        SchemaCodec codec = schema.codec();
+        if (codec != null && instance.schema == schema) {
+            codec.send(buffer, instance);
+            return;
+        }
+
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            String name = schema.names[slot];
+
             try {
 
-                boolean isPresent = instance.get(name) != null;
-                if (field.hasDefault() && field.getDefault(instance) == null) {
+                boolean isPresent = hasValue(schema, instance, slot);
+                if (schema.hasPresenceFlag(slot, instance)) {
                     buffer.writeBoolean(isPresent);
                 }
 
                 if (isPresent) {
-                    field.dataType.send(buffer, instance.get(name));
+                    sendValue(buffer, schema, instance, slot);
                 }
 
             } catch(DataException e) {
@@ -57,19 +131,72 @@ public class SerializableData {
             } catch(Exception e) {
                 throw new DataException(DataException.Phase.WRITING, name, e);
             }
-        });
+
+        }
+
     }
 
-    public <T> JsonObject write(Instance instance) {
+    /**
+     *  Writes the presence of all fields with a default as a single bitset, followed by the values that are present.
+     */
+    private void writeCompact(PacketByteBuf buffer, Schema schema, Instance instance) {
+
+        boolean[] present = new boolean[schema.size()];
+        BitSet presence = new BitSet(schema.presenceCount);
+
+        for (int slot = 0; slot < schema.size(); slot++) {
 
-        JsonObject jsonObject = new JsonObject();
-        dataFields.forEach((name, field) -> instance.ifPresent(name, o -> {
             try {
-                jsonObject.add(name, field.dataType.writeUnsafely(o));
+                present[slot] = hasValue(schema, instance, slot);
             } catch (Exception e) {
-                Calio.LOGGER.error("There was a problem serializing field {} with data type {} to JSON (skipping): {}", name, o.getClass(), e.getMessage());
+                throw new DataException(DataException.Phase.WRITING, schema.names[slot], e);
             }
-        }));
+
+            int presenceIndex = schema.presenceIndices[slot];
+            if (presenceIndex != -1 && present[slot]) {
+                presence.set(presenceIndex);
+            }
+
+        }
+
+        buffer.writeBitSet(presence, schema.presenceCount);
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            if (!present[slot]) {
+                continue;
+            }
+
+            try {
+                sendValue(buffer, schema, instance, slot);
+            } catch (DataException e) {
+                throw e.prepend(schema.names[slot]);
+            } catch (Exception e) {
+                throw new DataException(DataException.Phase.WRITING, schema.names[slot], e);
+            }
+
+        }
+
+    }
+
+    public <T> JsonObject write(Instance instance) {
+
+        JsonObject jsonObject = new JsonObject();
+        Schema schema = schema();
+
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            String name = schema.names[slot];
+            Field<?> field = schema.fields[slot];
+
+            instance.ifPresent(name, o -> {
+                try {
+                    jsonObject.add(name, field.dataType.writeUnsafely(o));
+                } catch (Exception e) {
+                    Calio.LOGGER.error("There was a problem serializing field {} with data type {} to JSON (skipping): {}", name, o.getClass(), e.getMessage());
+                }
+            });
+
+        }
 
         return jsonObject;
 
@@ -78,37 +205,96 @@ public class SerializableData {
     public Instance read(PacketByteBuf buffer) {
 
         Instance instance = new Instance();
-        dataFields.forEach((name, field) -> {
+        Schema schema = instance.schema;
+
+        if (SyncPacketByteBuf.isCompact(buffer)) {
+            readCompact(buffer, schema, instance);
+            return instance;
+        }
+
+        SchemaCodec codec = schema.codec();
+        if (codec != null) {
+            codec.receive(buffer, instance);
+            return instance;
+        }
+
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            String name = schema.names[slot];
+            Field<?> field = schema.fields[slot];
+
             try {
 
                 boolean isPresent = true;
-                if (field.hasDefault() && field.getDefault(instance) == null) {
+                if (schema.hasPresenceFlag(slot, instance)) {
                     isPresent = buffer.readBoolean();
                 }
 
-                instance.set(name, isPresent ? field.dataType.receive(buffer) : null);
+                if (isPresent) {
+                    field.dataType.receiveInto(buffer, instance, slot);
+                } else {
+                    instance.set(slot, null);
+                }
 
             } catch (DataException e) {
                 throw e.prepend(name);
             } catch (Exception e) {
                 throw new DataException(DataException.Phase.RECEIVING, name, e);
             }
-        });
+
+        }
 
         return instance;
 
     }
 
+    private void readCompact(PacketByteBuf buffer, Schema schema, Instance instance) {
+
+        BitSet presence = buffer.readBitSet(schema.presenceCount);
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            int presenceIndex = schema.presenceIndices[slot];
+            try {
+
+                if (presenceIndex == -1 || presence.get(presenceIndex)) {
+                    schema.fields[slot].dataType.receiveInto(buffer, instance, slot);
+                } else {
+                    instance.set(slot, null);
+                }
+
+            } catch (DataException e) {
+                throw e.prepend(schema.names[slot]);
+            } catch (Exception e) {
+                throw new DataException(DataException.Phase.RECEIVING, schema.names[slot], e);
+            }
+
+        }
+
+    }
+
     public Instance read(JsonObject jsonObject) {
 
         Instance instance = new Instance();
-        dataFields.forEach((name, field) -> {
+        Schema schema = instance.schema;
+
+        SchemaCodec codec = schema.codec();
+        if (codec != null) {
+            codec.read(jsonObject, instance);
+            return instance;
+        }
+
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            String name = schema.names[slot];
+            Field<?> field = schema.fields[slot];
+
             try {
 
-                if (jsonObject.has(name)) {
-                    instance.set(name, field.dataType.read(jsonObject.get(name)));
+                JsonElement jsonElement = jsonObject.get(name);
+                if (jsonElement != null) {
+                    field.dataType.readInto(jsonElement, instance, slot);
                 } else if (field.hasDefault()) {
-                    instance.set(name, field.getDefault(instance));
+                    instance.set(slot, field.getDefault(instance));
                 } else {
                     throw new JsonSyntaxException("JSON requires field: " + name);
                 }
@@ -118,12 +304,125 @@ public class SerializableData {
             } catch (Exception e) {
                 throw new DataException(DataException.Phase.READING, name, e);
             }
-        });
+
+        }
+
+        return instance;
+
+    }
+
+    /**
+     *  Reads an instance from the next JSON object of the specified token stream, without parsing the object into a tree
+     *  first. The values of the fields are read by {@link SerializableDataType#read(JsonReader)}. Unknown fields are
+     *  skipped, and fields that are missing get their default value once the whole object was read.
+     */
+    public Instance read(JsonReader reader) throws IOException {
+        reader.beginObject();
+        return readRemaining(reader);
+    }
+
+    /**
+     *  Like {@link #read(JsonReader)}, except the beginning of the object (and possibly some of its fields, e.g: a type
+     *  field that determined this serializable data) was already consumed from the token stream.
+     */
+    public Instance readRemaining(JsonReader reader) throws IOException {
+
+        Instance instance = new Instance();
+        Schema schema = instance.schema;
+
+        while (reader.hasNext()) {
+
+            String name = reader.nextName();
+            int slot = schema.indexOf(name);
+
+            if (slot == -1) {
+                reader.skipValue();
+                continue;
+            }
+
+            try {
+                schema.fields[slot].dataType.readInto(reader, instance, slot);
+            } catch (DataException e) {
+                throw e.prepend(name);
+            } catch (Exception e) {
+                throw new DataException(DataException.Phase.READING, name, e);
+            }
+
+        }
+
+        reader.endObject();
+        for (int slot = 0; slot < schema.size(); slot++) {
+
+            if (instance.isSet(slot)) {
+                continue;
+            }
+
+            String name = schema.names[slot];
+            Field<?> field = schema.fields[slot];
+
+            try {
+
+                if (!field.hasDefault()) {
+                    throw new JsonSyntaxException("JSON requires field: " + name);
+                }
+
+                instance.set(slot, field.getDefault(instance));
+
+            } catch (DataException e) {
+                throw e.prepend(name);
+            } catch (Exception e) {
+                throw new DataException(DataException.Phase.READING, name, e);
+            }
+
+        }
 
         return instance;
 
     }
 
+    /**
+     *  Returns the slot index of the field with the specified name, which can be used with the index-based accessors of
+     *  {@link Instance} to skip the name lookup. Slot indices are assigned in the order the fields were added in.
+     *
+     *  @param fieldName    the name of the field
+     *  @return             the slot index of the field, or {@code -1} if there is no field with the specified name
+     */
+    public int indexOf(String fieldName) {
+        return schema().indexOf(fieldName);
+    }
+
+    private Schema schema() {
+
+        Schema schema = this.schema;
+        if (schema == null) {
+            schema = new Schema(dataFields);
+            this.schema = schema;
+        }
+
+        return schema;
+
+    }
+
+    //  Instances created before a field was added (or by another serializable data) have a different schema, so their
+    //  values are looked up by name
+
+    private static boolean hasValue(Schema schema, Instance instance, int slot) {
+        return instance.schema == schema
+            ? instance.hasValue(slot)
+            : instance.get(schema.names[slot]) != null;
+    }
+
+    private static void sendValue(PacketByteBuf buffer, Schema schema, Instance instance, int slot) {
+
+        Field<?> field = schema.fields[slot];
+        if (instance.schema == schema) {
+            field.dataType.sendFrom(buffer, instance, slot);
+        } else {
+            field.dataType.send(buffer, instance.get(schema.names[slot]));
+        }
+
+    }
+
     public SerializableData copy() {
 
         SerializableData copy = new SerializableData();
@@ -145,23 +444,161 @@ public class SerializableData {
         }
     }
 
-    public class Instance {
+    /**
+     *  A frozen view of the fields of a {@link SerializableData}, which assigns each field a fixed slot index.
+     */
+    private static final class Schema {
 
-        private final HashMap<String, Object> data = new HashMap<>();
+        private final String[] names;
+        private final Field<?>[] fields;
+        private final Object2IntMap<String> indices;
 
-        public boolean isPresent(String name) {
+        //  The index of the presence bit of each slot in the compact network encoding, or -1 if the field is required
+        private final int[] presenceIndices;
+        private final int presenceCount;
+
+        //  Whether each slot is preceded by a presence flag in the regular network encoding
+        private final PresenceFlag[] presenceFlags;
 
-            if (dataFields.containsKey(name)) {
+        //  Generated on first use if enabled; failing to generate it falls back to the generic implementation for good
+        private volatile SchemaCodec codec;
+        private volatile boolean codecFailed;
 
-                Field<?> field = dataFields.get(name);
+        private Schema(LinkedHashMap<String, Field<?>> dataFields) {
+
+            this.names = new String[dataFields.size()];
+            this.fields = new Field<?>[dataFields.size()];
+            this.presenceIndices = new int[dataFields.size()];
+            this.presenceFlags = new PresenceFlag[dataFields.size()];
+
+            this.indices = new Object2IntOpenHashMap<>(dataFields.size());
+            this.indices.defaultReturnValue(-1);
+
+            int slot = 0;
+            int presenceCount = 0;
+            for (Map.Entry<String, Field<?>> entry : dataFields.entrySet()) {
+                names[slot] = entry.getKey();
+                fields[slot] = entry.getValue();
+                presenceIndices[slot] = entry.getValue().hasDefault() ? presenceCount++ : -1;
+                presenceFlags[slot] = PresenceFlag.of(entry.getValue());
+                indices.put(entry.getKey(), slot++);
+            }
+
+            this.presenceCount = presenceCount;
+
+        }
+
+        private int size() {
+            return names.length;
+        }
 
-                if (field.hasDefault() && field.getDefault(this) == null) {
-                    return get(name) != null;
+        private int indexOf(String name) {
+            return indices.getInt(name);
+        }
+
+        private SchemaCodec codec() {
+
+            if (!generatedCodecs || codecFailed) {
+                return null;
+            }
+
+            SchemaCodec codec = this.codec;
+            if (codec == null) {
+
+                //  Schemas may be used by multiple threads at once; at worst, a codec is generated more than once
+                try {
+                    codec = SchemaCodecGenerator.generate(names, fields, presenceFlags);
+                    this.codec = codec;
+                } catch (Throwable t) {
+                    Calio.LOGGER.warn("Could not generate codec for serializable data with fields {} (using the generic implementation): {}", Arrays.toString(names), t.toString());
+                    codecFailed = true;
                 }
 
             }
 
-            return data.containsKey(name);
+            return codec;
+
+        }
+
+        /**
+         *  Returns whether the value of the specified slot is preceded by a presence flag in the regular network encoding,
+         *  i.e: whether the default of its field is null. Only default functions are evaluated, since whether a static
+         *  default is null is known once the schema is compiled.
+         */
+        private boolean hasPresenceFlag(int slot, Instance instance) {
+            return switch (presenceFlags[slot]) {
+                case NEVER -> false;
+                case ALWAYS -> true;
+                case IF_DEFAULT_IS_NULL -> fields[slot].getDefault(instance) == null;
+            };
+        }
+
+    }
+
+    enum PresenceFlag {
+        NEVER,
+        ALWAYS,
+        IF_DEFAULT_IS_NULL;
+
+        private static PresenceFlag of(Field<?> field) {
+
+            if (!field.hasDefault()) {
+                return NEVER;
+            }
+
+            if (field.hasDefaultFunction) {
+                return IF_DEFAULT_IS_NULL;
+            }
+
+            return field.defaultValue == null
+                ? ALWAYS
+                : NEVER;
+
+        }
+
+    }
+
+    /**
+     *  Marks the state of a slot of an {@link Instance} that doesn't hold a reference value.
+     */
+    private enum Slot {
+        ABSENT,
+        INT,
+        FLOAT,
+        DOUBLE,
+        BOOLEAN
+    }
+
+    public class Instance {
+
+        private final Schema schema;
+        private final Object[] values;
+
+        //  Raw bits of the slots that use primitive storage; only allocated once a primitive is stored
+        private long[] primitives;
+
+        //  Values of names that aren't fields of the serializable data
+        private Map<String, Object> extraData;
+
+        public Instance() {
+            this.schema = schema();
+            this.values = new Object[schema.size()];
+            Arrays.fill(values, Slot.ABSENT);
+        }
+
+        public boolean isPresent(String name) {
+
+            int slot = schema.indexOf(name);
+            if (slot == -1) {
+                return extraData != null && extraData.containsKey(name);
+            }
+
+            Field<?> field = schema.fields[slot];
+            if (field.hasDefault() && field.getDefault(this) == null) {
+                return get(slot) != null;
+            }
+
+            return isSet(slot);
 
         }
 
@@ -171,34 +608,185 @@ public class SerializableData {
             }
         }
 
+        public boolean isSet(int slot) {
+            return values[slot] != Slot.ABSENT;
+        }
+
+        //  Whether the slot holds a non-null value, without boxing primitive values
+        boolean hasValue(int slot) {
+
+            Object value = values[slot];
+            if (value == Slot.ABSENT) {
+                throw new RuntimeException("Tried to get field \"" + schema.names[slot] + "\" from data, which did not exist.");
+            }
+
+            return value != null;
+
+        }
+
         public void set(String name, Object value) {
-            this.data.put(name, value);
+
+            int slot = schema.indexOf(name);
+            if (slot != -1) {
+                set(slot, value);
+                return;
+            }
+
+            if (extraData == null) {
+                extraData = new HashMap<>();
+            }
+
+            extraData.put(name, value);
+
+        }
+
+        public void set(int slot, Object value) {
+            values[slot] = value;
+        }
+
+        public void setInt(int slot, int value) {
+            setPrimitive(slot, Slot.INT, value);
+        }
+
+        public void setBoolean(int slot, boolean value) {
+            setPrimitive(slot, Slot.BOOLEAN, value ? 1L : 0L);
+        }
+
+        public void setFloat(int slot, float value) {
+            setPrimitive(slot, Slot.FLOAT, Float.floatToRawIntBits(value));
+        }
+
+        public void setDouble(int slot, double value) {
+            setPrimitive(slot, Slot.DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        private void setPrimitive(int slot, Slot kind, long bits) {
+
+            if (primitives == null) {
+                primitives = new long[values.length];
+            }
+
+            primitives[slot] = bits;
+            values[slot] = kind;
+
         }
 
         @SuppressWarnings("unchecked")
         public <T> T get(String name) {
 
-            if(!data.containsKey(name)) {
+            int slot = schema.indexOf(name);
+            if (slot != -1 && isSet(slot)) {
+                return get(slot);
+            }
+
+            if (extraData == null || !extraData.containsKey(name)) {
                 throw new RuntimeException("Tried to get field \"" + name + "\" from data, which did not exist.");
             }
 
-            return (T) data.get(name);
+            return (T) extraData.get(name);
+
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(int slot) {
+
+            Object value = values[slot];
+            if (!(value instanceof Slot kind)) {
+                return (T) value;
+            }
+
+            return (T) switch (kind) {
+                case ABSENT -> throw new RuntimeException("Tried to get field \"" + schema.names[slot] + "\" from data, which did not exist.");
+                case INT -> (Integer) (int) primitives[slot];
+                case BOOLEAN -> (Boolean) (primitives[slot] != 0L);
+                case FLOAT -> (Float) Float.intBitsToFloat((int) primitives[slot]);
+                case DOUBLE -> (Double) Double.longBitsToDouble(primitives[slot]);
+            };
+
         }
 
         public int getInt(String name) {
+
+            int slot = schema.indexOf(name);
+            if (slot != -1 && values[slot] == Slot.INT) {
+                return (int) primitives[slot];
+            }
+
             return get(name);
+
+        }
+
+        public int getInt(int slot) {
+
+            if (values[slot] == Slot.INT) {
+                return (int) primitives[slot];
+            }
+
+            return get(slot);
+
         }
 
         public boolean getBoolean(String name) {
+
+            int slot = schema.indexOf(name);
+            if (slot != -1 && values[slot] == Slot.BOOLEAN) {
+                return primitives[slot] != 0L;
+            }
+
             return get(name);
+
+        }
+
+        public boolean getBoolean(int slot) {
+
+            if (values[slot] == Slot.BOOLEAN) {
+                return primitives[slot] != 0L;
+            }
+
+            return get(slot);
+
         }
 
         public float getFloat(String name) {
+
+            int slot = schema.indexOf(name);
+            if (slot != -1 && values[slot] == Slot.FLOAT) {
+                return Float.intBitsToFloat((int) primitives[slot]);
+            }
+
             return get(name);
+
+        }
+
+        public float getFloat(int slot) {
+
+            if (values[slot] == Slot.FLOAT) {
+                return Float.intBitsToFloat((int) primitives[slot]);
+            }
+
+            return get(slot);
+
         }
 
         public double getDouble(String name) {
+
+            int slot = schema.indexOf(name);
+            if (slot != -1 && values[slot] == Slot.DOUBLE) {
+                return Double.longBitsToDouble(primitives[slot]);
+            }
+
             return get(name);
+
+        }
+
+        public double getDouble(int slot) {
+
+            if (values[slot] == Slot.DOUBLE) {
+                return Double.longBitsToDouble(primitives[slot]);
+            }
+
+            return get(slot);
+
         }
 
         public String getString(String name) {
@@ -9,20 +9,32 @@ import io.github.apace100.calio.Calio;
 import io.github.apace100.calio.ClassUtil;
 import io.github.apace100.calio.FilterableWeightedList;
 import io.github.apace100.calio.mixin.WeightedListEntryAccessor;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
 import io.github.apace100.calio.util.ArgumentWrapper;
 import io.github.apace100.calio.util.DynamicIdentifier;
 import io.github.apace100.calio.util.TagLike;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.floats.FloatList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.Registry;
 import net.minecraft.registry.RegistryKey;
-import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.tag.TagKey;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.JsonHelper;
 import net.minecraft.util.collection.WeightedList;
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.parsers.json.JsonReader;
+import org.quiltmc.parsers.json.JsonToken;
+import org.quiltmc.parsers.json.gson.GsonReader;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -36,6 +48,9 @@ public class SerializableDataType<T> {
     private final Function<JsonElement, T> read;
     private final Function<T, JsonElement> write;
 
+    //  Reads values straight from a JSON token stream; null if values are read from a JsonElement parsed from the stream
+    private StreamingReader<T> streamingRead;
+
     @Deprecated
     public SerializableDataType(Class<T> dataClass,
                                 BiConsumer<PacketByteBuf, T> send,
@@ -71,6 +86,17 @@ public class SerializableDataType<T> {
         return read.apply(jsonElement);
     }
 
+    /**
+     * Reads a value from the next value of the specified token stream. Data types of composite values (compounds, lists
+     * and maps) read their elements straight from the stream, so no tree of the whole value is built; all other data types
+     * read the next value as a {@link JsonElement} first, which is a single leaf for most of them.
+     */
+    public T read(JsonReader reader) throws IOException {
+        return streamingRead != null
+            ? streamingRead.read(reader)
+            : read(readElement(reader));
+    }
+
     public JsonElement writeUnsafely(Object value) throws Exception {
         try {
             return write.apply(cast(value));
@@ -87,9 +113,84 @@ public class SerializableDataType<T> {
         return dataClass.cast(data);
     }
 
+    /**
+     * Creates a data type that decodes values like this one, but returns the same instance for equal JSON values, so a
+     * JSON value equal to one that was read before isn't decoded again. This saves both the decoding and the memory of
+     * the copies when packs repeat the same value many times. Received values aren't interned, since the encoding of a
+     * value may depend on the buffer it was sent with.<br>
+     * JSON values that contain {@code *} are only shared between values read for the same data file, since
+     * {@link DynamicIdentifier} replaces it with the ID of the data file being read.<br>
+     * The interned values are dropped by {@link #clearInternedValues()}, which is called after every data pack reload.
+     * Since looking a value up costs about as much as converting its JSON value to a string, only intern data types that
+     * are more expensive to decode than that.
+     * Only use this for data types whose values are immutable, and whose decoding only depends on the JSON value, the
+     * ID of the data file and the state of the reload.
+     */
+    public SerializableDataType<T> interned() {
+
+        InternedValues<T> internedValues = new InternedValues<>();
+        return new SerializableDataType<>(
+            dataClass,
+            send,
+            receive,
+            jsonElement -> internedValues.getOrRead(jsonElement, this::read),
+            write
+        );
+
+    }
+
+    /**
+     * Drops the values of all {@linkplain #interned() interned} data types, so that values which are no longer used can
+     * be garbage collected, and values are decoded again with the state of the next reload (e.g: tags).
+     */
+    public static void clearInternedValues() {
+        InternedValues.clearAll();
+    }
+
+    //  Used by serializable data to read, receive and send the value of a slot of an instance. Data types for primitives
+    //  override these to use the primitive storage of the instance.
+
+    void readInto(JsonElement jsonElement, SerializableData.Instance instance, int slot) {
+        instance.set(slot, read(jsonElement));
+    }
+
+    void receiveInto(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        instance.set(slot, receive(buffer));
+    }
+
+    void sendFrom(PacketByteBuf buffer, SerializableData.Instance instance, int slot) {
+        send(buffer, instance.get(slot));
+    }
+
+    void readInto(JsonReader reader, SerializableData.Instance instance, int slot) throws IOException {
+        if (streamingRead != null) {
+            instance.set(slot, streamingRead.read(reader));
+        } else {
+            readInto(readElement(reader), instance, slot);
+        }
+    }
+
+    /**
+     * Reads the next value of the specified token stream as a {@link JsonElement}, the same way the data loaders parse
+     * data files. Used where a value needs random access.
+     */
+    public static JsonElement readElement(JsonReader reader) {
+        return JsonParser.parseReader(new GsonReader(reader));
+    }
+
     public static <T> SerializableDataType<List<T>> list(SerializableDataType<T> singleDataType) {
-        return new SerializableDataType<>(ClassUtil.castClass(List.class), (buf, list) -> {
-            buf.writeInt(list.size());
+        return list(singleDataType, false);
+    }
+
+    /**
+     * Creates a data type for lists of the specified data type. The decoded lists are array-backed and presized from the
+     * element count.
+     * @param singleDataType the data type of the elements
+     * @param immutable whether the decoded lists should be unmodifiable
+     */
+    public static <T> SerializableDataType<List<T>> list(SerializableDataType<T> singleDataType, boolean immutable) {
+        SerializableDataType<List<T>> dataType = new SerializableDataType<>(ClassUtil.castClass(List.class), (buf, list) -> {
+            SyncPacketByteBuf.writeSize(buf, list.size());
             int i = 0;
             for(T elem : list) {
                 try {
@@ -102,8 +203,8 @@ public class SerializableDataType<T> {
                 i++;
             }
         }, (buf) -> {
-            int count = buf.readInt();
-            LinkedList<T> list = new LinkedList<>();
+            int count = SyncPacketByteBuf.readSize(buf);
+            List<T> list = new ArrayList<>(count);
             for(int i = 0; i < count; i++) {
                 try {
                     list.add(singleDataType.receive(buf));
@@ -113,12 +214,14 @@ public class SerializableDataType<T> {
                     throw new DataException(DataException.Phase.RECEIVING, "[" + i + "]", e);
                 }
             }
-            return list;
+            return immutable ? Collections.unmodifiableList(list) : list;
         }, (json) -> {
-            LinkedList<T> list = new LinkedList<>();
+            List<T> list;
             if(json.isJsonArray()) {
+                JsonArray array = json.getAsJsonArray();
+                list = new ArrayList<>(array.size());
                 int i = 0;
-                for(JsonElement je : json.getAsJsonArray()) {
+                for(JsonElement je : array) {
                     try {
                         list.add(singleDataType.read(je));
                     } catch(DataException e) {
@@ -129,9 +232,10 @@ public class SerializableDataType<T> {
                     i++;
                 }
             } else {
+                list = new ArrayList<>(1);
                 list.add(singleDataType.read(json));
             }
-            return list;
+            return immutable ? Collections.unmodifiableList(list) : list;
         }, (list) -> {
             JsonArray array = new JsonArray();
             for (T value : list) {
@@ -139,16 +243,206 @@ public class SerializableDataType<T> {
             }
             return array;
         });
+        dataType.streamingRead = reader -> {
+            List<T> list;
+            if(reader.peek() == JsonToken.BEGIN_ARRAY) {
+                list = new ArrayList<>();
+                reader.beginArray();
+                for(int i = 0; reader.hasNext(); i++) {
+                    try {
+                        list.add(singleDataType.read(reader));
+                    } catch(DataException e) {
+                        throw e.prepend("[" + i + "]");
+                    } catch(Exception e) {
+                        throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                    }
+                }
+                reader.endArray();
+            } else {
+                list = new ArrayList<>(1);
+                list.add(singleDataType.read(reader));
+            }
+            return immutable ? Collections.unmodifiableList(list) : list;
+        };
+        return dataType;
+    }
+
+    /**
+     * Creates a data type for lists of integers, which are backed by an {@link IntArrayList}, so that the elements are
+     * decoded without boxing them. Use {@link IntList#getInt(int)} to access them without unboxing.
+     */
+    public static SerializableDataType<List<Integer>> intList() {
+        SerializableDataType<List<Integer>> dataType = new SerializableDataType<>(ClassUtil.castClass(List.class), (buf, list) -> {
+            IntList ints = list instanceof IntList intList ? intList : new IntArrayList(list);
+            SyncPacketByteBuf.writeSize(buf, ints.size());
+            for(int i = 0; i < ints.size(); i++) {
+                SyncPacketByteBuf.writeSignedInt(buf, ints.getInt(i));
+            }
+        }, (buf) -> {
+            int count = SyncPacketByteBuf.readSize(buf);
+            IntArrayList ints = new IntArrayList(count);
+            for(int i = 0; i < count; i++) {
+                ints.add(SyncPacketByteBuf.readSignedInt(buf));
+            }
+            return ints;
+        }, (json) -> {
+            JsonArray array = json.isJsonArray() ? json.getAsJsonArray() : null;
+            IntArrayList ints = new IntArrayList(array != null ? array.size() : 1);
+            int i = 0;
+            for(JsonElement je : array != null ? array : List.of(json)) {
+                try {
+                    ints.add(je.getAsInt());
+                } catch(Exception e) {
+                    throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                }
+                i++;
+            }
+            return ints;
+        }, (list) -> {
+            JsonArray array = new JsonArray(list.size());
+            list.forEach(array::add);
+            return array;
+        });
+        dataType.streamingRead = reader -> {
+            IntArrayList ints = new IntArrayList();
+            if(reader.peek() != JsonToken.BEGIN_ARRAY) {
+                ints.add(readElement(reader).getAsInt());
+                return ints;
+            }
+            reader.beginArray();
+            for(int i = 0; reader.hasNext(); i++) {
+                try {
+                    ints.add(readElement(reader).getAsInt());
+                } catch(Exception e) {
+                    throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                }
+            }
+            reader.endArray();
+            return ints;
+        };
+        return dataType;
+    }
+
+    /**
+     * Creates a data type for lists of floats, which are backed by a {@link FloatArrayList}, so that the elements are
+     * decoded without boxing them. Use {@link FloatList#getFloat(int)} to access them without unboxing.
+     */
+    public static SerializableDataType<List<Float>> floatList() {
+        SerializableDataType<List<Float>> dataType = new SerializableDataType<>(ClassUtil.castClass(List.class), (buf, list) -> {
+            FloatList floats = list instanceof FloatList floatList ? floatList : new FloatArrayList(list);
+            SyncPacketByteBuf.writeSize(buf, floats.size());
+            for(int i = 0; i < floats.size(); i++) {
+                buf.writeFloat(floats.getFloat(i));
+            }
+        }, (buf) -> {
+            int count = SyncPacketByteBuf.readSize(buf);
+            FloatArrayList floats = new FloatArrayList(count);
+            for(int i = 0; i < count; i++) {
+                floats.add(buf.readFloat());
+            }
+            return floats;
+        }, (json) -> {
+            JsonArray array = json.isJsonArray() ? json.getAsJsonArray() : null;
+            FloatArrayList floats = new FloatArrayList(array != null ? array.size() : 1);
+            int i = 0;
+            for(JsonElement je : array != null ? array : List.of(json)) {
+                try {
+                    floats.add(je.getAsFloat());
+                } catch(Exception e) {
+                    throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                }
+                i++;
+            }
+            return floats;
+        }, (list) -> {
+            JsonArray array = new JsonArray(list.size());
+            list.forEach(array::add);
+            return array;
+        });
+        dataType.streamingRead = reader -> {
+            FloatArrayList floats = new FloatArrayList();
+            if(reader.peek() != JsonToken.BEGIN_ARRAY) {
+                floats.add(readElement(reader).getAsFloat());
+                return floats;
+            }
+            reader.beginArray();
+            for(int i = 0; reader.hasNext(); i++) {
+                try {
+                    floats.add(readElement(reader).getAsFloat());
+                } catch(Exception e) {
+                    throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                }
+            }
+            reader.endArray();
+            return floats;
+        };
+        return dataType;
+    }
+
+    /**
+     * Creates a data type for lists of doubles, which are backed by a {@link DoubleArrayList}, so that the elements are
+     * decoded without boxing them. Use {@link DoubleList#getDouble(int)} to access them without unboxing.
+     */
+    public static SerializableDataType<List<Double>> doubleList() {
+        SerializableDataType<List<Double>> dataType = new SerializableDataType<>(ClassUtil.castClass(List.class), (buf, list) -> {
+            DoubleList doubles = list instanceof DoubleList doubleList ? doubleList : new DoubleArrayList(list);
+            SyncPacketByteBuf.writeSize(buf, doubles.size());
+            for(int i = 0; i < doubles.size(); i++) {
+                buf.writeDouble(doubles.getDouble(i));
+            }
+        }, (buf) -> {
+            int count = SyncPacketByteBuf.readSize(buf);
+            DoubleArrayList doubles = new DoubleArrayList(count);
+            for(int i = 0; i < count; i++) {
+                doubles.add(buf.readDouble());
+            }
+            return doubles;
+        }, (json) -> {
+            JsonArray array = json.isJsonArray() ? json.getAsJsonArray() : null;
+            DoubleArrayList doubles = new DoubleArrayList(array != null ? array.size() : 1);
+            int i = 0;
+            for(JsonElement je : array != null ? array : List.of(json)) {
+                try {
+                    doubles.add(je.getAsDouble());
+                } catch(Exception e) {
+                    throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                }
+                i++;
+            }
+            return doubles;
+        }, (list) -> {
+            JsonArray array = new JsonArray(list.size());
+            list.forEach(array::add);
+            return array;
+        });
+        dataType.streamingRead = reader -> {
+            DoubleArrayList doubles = new DoubleArrayList();
+            if(reader.peek() != JsonToken.BEGIN_ARRAY) {
+                doubles.add(readElement(reader).getAsDouble());
+                return doubles;
+            }
+            reader.beginArray();
+            for(int i = 0; reader.hasNext(); i++) {
+                try {
+                    doubles.add(readElement(reader).getAsDouble());
+                } catch(Exception e) {
+                    throw new DataException(DataException.Phase.READING, "[" + i + "]", e);
+                }
+            }
+            reader.endArray();
+            return doubles;
+        };
+        return dataType;
     }
 
     public static <T> SerializableDataType<FilterableWeightedList<T>> weightedList(SerializableDataType<T> singleDataType) {
         return new SerializableDataType<>(ClassUtil.castClass(FilterableWeightedList.class), (buf, list) -> {
-            buf.writeInt(list.size());
+            SyncPacketByteBuf.writeSize(buf, list.size());
             AtomicInteger i = new AtomicInteger();
             list.entryStream().forEach(entry -> {
                 try {
                     singleDataType.send(buf, entry.getElement());
-                    buf.writeInt(((WeightedListEntryAccessor) entry).getWeight());
+                    SyncPacketByteBuf.writeSize(buf, ((WeightedListEntryAccessor) entry).getWeight());
                 } catch(DataException e) {
                     throw e.prepend("[" + i.get() + "]");
                 } catch(Exception e) {
@@ -157,12 +451,12 @@ public class SerializableDataType<T> {
                 i.getAndIncrement();
             });
         }, (buf) -> {
-            int count = buf.readInt();
+            int count = SyncPacketByteBuf.readSize(buf);
             FilterableWeightedList<T> list = new FilterableWeightedList<>();
             for (int i = 0; i < count; i++) {
                 try {
                     T t = singleDataType.receive(buf);
-                    int weight = buf.readInt();
+                    int weight = SyncPacketByteBuf.readSize(buf);
                     list.add(t, weight);
                 } catch(DataException e) {
                     throw e.prepend("[" + i + "]");
@@ -225,7 +519,7 @@ public class SerializableDataType<T> {
     }
 
     public static <T> SerializableDataType<T> registry(Class<T> dataClass, Registry<T> registry, String defaultNamespace, BiFunction<Registry<T>, Identifier, RuntimeException> exception) {
-        return wrap(
+        SerializableDataType<T> jsonDataType = wrap(
             dataClass,
             SerializableDataTypes.STRING,
             t -> Objects.requireNonNull(registry.getId(t)).toString(),
@@ -234,14 +528,33 @@ public class SerializableDataType<T> {
                 return registry.getOrEmpty(id).orElseThrow(() -> exception.apply(registry, id));
             }
         );
+        //  On a plain buffer, this is the same encoding as a string of the full identifier
+        return new SerializableDataType<>(
+            dataClass,
+            (buf, t) -> SyncPacketByteBuf.writeRegistryValue(buf, registry, t),
+            buf -> {
+                if(SyncPacketByteBuf.usesRawIds(buf, registry)) {
+                    //  Raw IDs are only used for registries that Fabric syncs, so there is no identifier to report
+                    int rawId = buf.readVarInt();
+                    return Optional.ofNullable(registry.get(rawId))
+                        .orElseThrow(() -> new RuntimeException("Received raw ID %d, which is not registered in registry \"%s\".".formatted(rawId, registry.getKey().getValue())));
+                }
+                Identifier id = buf.readIdentifier();
+                return registry.getOrEmpty(id).orElseThrow(() -> exception.apply(registry, id));
+            },
+            jsonDataType::read,
+            jsonDataType::write
+        );
     }
 
     public static <T> SerializableDataType<T> compound(Class<T> dataClass, SerializableData data, Function<SerializableData.Instance, T> toInstance, BiFunction<SerializableData, T, SerializableData.Instance> toData) {
-        return new SerializableDataType<>(dataClass,
+        SerializableDataType<T> dataType = new SerializableDataType<>(dataClass,
             (buf, t) -> data.write(buf, toData.apply(data, t)),
             (buf) -> toInstance.apply(data.read(buf)),
             (json) -> toInstance.apply(data.read(json.getAsJsonObject())),
             (t) -> data.write(toData.apply(data, t)));
+        dataType.streamingRead = reader -> toInstance.apply(data.read(reader));
+        return dataType;
     }
 
     public static <T extends Enum<T>> SerializableDataType<T> enumValue(Class<T> dataClass) {
@@ -250,8 +563,8 @@ public class SerializableDataType<T> {
 
     public static <T extends Enum<T>> SerializableDataType<T> enumValue(Class<T> dataClass, HashMap<String, T> additionalMap) {
         return new SerializableDataType<>(dataClass,
-            (buf, t) -> buf.writeInt(t.ordinal()),
-            (buf) -> dataClass.getEnumConstants()[buf.readInt()],
+            (buf, t) -> SyncPacketByteBuf.writeSize(buf, t.ordinal()),
+            (buf) -> dataClass.getEnumConstants()[SyncPacketByteBuf.readSize(buf)],
             (json) -> {
                 if(json.isJsonPrimitive()) {
                     JsonPrimitive primitive = json.getAsJsonPrimitive();
@@ -296,7 +609,7 @@ public class SerializableDataType<T> {
     }
 
     public static <V> SerializableDataType<Map<String, V>> map(SerializableDataType<V> valueDataType) {
-        return new SerializableDataType<>(
+        SerializableDataType<Map<String, V>> dataType = new SerializableDataType<>(
             ClassUtil.castClass(Map.class),
             (buffer, map) -> buffer.writeMap(
                 map,
@@ -330,6 +643,24 @@ public class SerializableDataType<T> {
 
             }
         );
+        dataType.streamingRead = reader -> {
+
+            if(reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonSyntaxException("Expected a JSON object.");
+            }
+
+            Map<String, V> map = new HashMap<>();
+            reader.beginObject();
+
+            while(reader.hasNext()) {
+                map.put(reader.nextName(), valueDataType.read(reader));
+            }
+
+            reader.endObject();
+            return map;
+
+        };
+        return dataType;
     }
 
     public static <T> SerializableDataType<T> mapped(Class<T> dataClass, BiMap<String, T> map) {
@@ -373,9 +704,7 @@ public class SerializableDataType<T> {
             id -> {
 
                 TagKey<T> tagKey = TagKey.of(registryRef, id);
-                Map<TagKey<?>, Collection<RegistryEntry<?>>> registryTags = Calio.REGISTRY_TAGS.get();
-
-                if (registryTags != null && !registryTags.containsKey(tagKey)) {
+                if (Calio.isTagMissing(tagKey)) {
                     throw new IllegalArgumentException("Tag \"" + id + "\" for registry \"" + registryRef.getValue() + "\" doesn't exist.");
                 }
 
@@ -415,20 +744,8 @@ public class SerializableDataType<T> {
 
     public static <T extends Enum<T>> SerializableDataType<EnumSet<T>> enumSet(Class<T> enumClass, SerializableDataType<T> enumDataType) {
         return new SerializableDataType<>(ClassUtil.castClass(EnumSet.class),
-            (buf, set) -> {
-                buf.writeInt(set.size());
-                set.forEach(t -> buf.writeInt(t.ordinal()));
-            },
-            (buf) -> {
-                int size = buf.readInt();
-                EnumSet<T> set = EnumSet.noneOf(enumClass);
-                T[] allValues = enumClass.getEnumConstants();
-                for(int i = 0; i < size; i++) {
-                    int ordinal = buf.readInt();
-                    set.add(allValues[ordinal]);
-                }
-                return set;
-            },
+            (buf, set) -> SyncPacketByteBuf.writeEnumSet(buf, set, enumClass),
+            (buf) -> SyncPacketByteBuf.readEnumSet(buf, enumClass),
             (json) -> {
                 EnumSet<T> set = EnumSet.noneOf(enumClass);
                 if(json.isJsonPrimitive()) {
@@ -497,4 +814,74 @@ public class SerializableDataType<T> {
         );
     }
 
+    @FunctionalInterface
+    private interface StreamingReader<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * The values read by an {@linkplain #interned() interned} data type since the last call to
+     * {@link #clearInternedValues()}, keyed by the JSON string of the value they were read from.
+     */
+    private static final class InternedValues<T> {
+
+        //  Weakly referenced, so that interned data types which are no longer used can still be garbage collected
+        private static final Set<InternedValues<?>> INSTANCES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+        private volatile Map<Key, T> values;
+
+        private InternedValues() {
+            INSTANCES.add(this);
+        }
+
+        private static void clearAll() {
+            synchronized (INSTANCES) {
+                for (InternedValues<?> internedValues : INSTANCES) {
+                    internedValues.values = null;
+                }
+            }
+        }
+
+        private T getOrRead(JsonElement jsonElement, Function<JsonElement, T> reader) {
+
+            //  A value that is still being read while the values are cleared is added to the map that was dropped
+            Map<Key, T> values = this.values;
+            if (values == null) {
+                values = new ConcurrentHashMap<>();
+                this.values = values;
+            }
+
+            String json = jsonElement.toString();
+            Key key = json.indexOf('*') >= 0
+                ? new Key(SerializableData.getCurrentNamespace(), SerializableData.getCurrentPath(), json)
+                : new Key(null, null, json);
+
+            //  Values are looked up before decoding and added after it (instead of using computeIfAbsent), since decoding a
+            //  value may read nested values of the same data type
+            T internedValue = values.get(key);
+            if (internedValue != null) {
+                return internedValue;
+            }
+
+            T value = reader.apply(jsonElement);
+            if (value == null) {
+                return null;
+            }
+
+            internedValue = values.putIfAbsent(key, value);
+            return internedValue != null ? internedValue : value;
+
+        }
+
+        /**
+         * @param namespace the namespace of the data file the value was read for, if its JSON string contains {@code *}
+         * @param path the path of the data file the value was read for, if its JSON string contains {@code *}
+         * @param json the JSON string the value was read from, which (unlike the JSON element) can't change afterwards
+         */
+        private record Key(@Nullable String namespace, @Nullable String path, String json) {
+
+        }
+
+    }
+
 }
@@ -11,6 +11,7 @@ import io.github.apace100.calio.Calio;
 import io.github.apace100.calio.ClassUtil;
 import io.github.apace100.calio.SerializationHelper;
 import io.github.apace100.calio.mixin.IngredientAccessor;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
 import io.github.apace100.calio.util.*;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -59,82 +60,29 @@ import java.util.*;
 @SuppressWarnings("unused")
 public final class SerializableDataTypes {
 
-    public static final SerializableDataType<Integer> INT = new SerializableDataType<>(
-        Integer.class,
-        PacketByteBuf::writeInt,
-        PacketByteBuf::readInt,
-        JsonElement::getAsInt,
-        JsonPrimitive::new);
-
-    public static final SerializableDataType<List<Integer>> INTS = SerializableDataType.list(INT);
-
-    public static final SerializableDataType<Integer> POSITIVE_INT = SerializableDataType.boundNumber(
-        INT, 1, Integer.MAX_VALUE,
-        value -> (min, max) -> {
+    public static final SerializableDataType<Integer> INT = new IntDataType();
 
-            if (value < min || value > max) {
-                throw new IllegalArgumentException("Expected integer to be greater than 0! (current value: " + value + ")");
-            }
-
-            return value;
+    public static final SerializableDataType<List<Integer>> INTS = SerializableDataType.intList();
 
-        }
-    );
+    public static final SerializableDataType<Integer> POSITIVE_INT = new IntDataType(1, Integer.MAX_VALUE, "Expected integer to be greater than 0!");
 
     public static final SerializableDataType<List<Integer>> POSITIVE_INTS = SerializableDataType.list(POSITIVE_INT);
 
-    public static final SerializableDataType<Boolean> BOOLEAN = new SerializableDataType<>(
-        Boolean.class,
-        PacketByteBuf::writeBoolean,
-        PacketByteBuf::readBoolean,
-        JsonElement::getAsBoolean,
-        JsonPrimitive::new);
-
-    public static final SerializableDataType<Float> FLOAT = new SerializableDataType<>(
-        Float.class,
-        PacketByteBuf::writeFloat,
-        PacketByteBuf::readFloat,
-        JsonElement::getAsFloat,
-        JsonPrimitive::new);
-
-    public static final SerializableDataType<List<Float>> FLOATS = SerializableDataType.list(FLOAT);
+    public static final SerializableDataType<Boolean> BOOLEAN = new BooleanDataType();
 
-    public static final SerializableDataType<Float> POSITIVE_FLOAT = SerializableDataType.boundNumber(
-        FLOAT, 1F, Float.MAX_VALUE,
-        value -> (min, max) -> {
+    public static final SerializableDataType<Float> FLOAT = new FloatDataType();
 
-            if (value < min || value > max) {
-                throw new IllegalArgumentException("Expected float to be greater than 0! (current value: " + value + ")");
-            }
+    public static final SerializableDataType<List<Float>> FLOATS = SerializableDataType.floatList();
 
-            return value;
-
-        }
-    );
+    public static final SerializableDataType<Float> POSITIVE_FLOAT = new FloatDataType(1F, Float.MAX_VALUE, "Expected float to be greater than 0!");
 
     public static final SerializableDataType<List<Float>> POSITIVE_FLOATS = SerializableDataType.list(POSITIVE_FLOAT);
 
-    public static final SerializableDataType<Double> DOUBLE = new SerializableDataType<>(
-        Double.class,
-        PacketByteBuf::writeDouble,
-        PacketByteBuf::readDouble,
-        JsonElement::getAsDouble,
-        JsonPrimitive::new);
-
-    public static final SerializableDataType<List<Double>> DOUBLES = SerializableDataType.list(DOUBLE);
+    public static final SerializableDataType<Double> DOUBLE = new DoubleDataType();
 
-    public static final SerializableDataType<Double> POSITIVE_DOUBLE = SerializableDataType.boundNumber(
-        DOUBLE, 1D, Double.MAX_VALUE,
-        value -> (min, max) -> {
+    public static final SerializableDataType<List<Double>> DOUBLES = SerializableDataType.doubleList();
 
-            if (value < min || value > max) {
-                throw new IllegalArgumentException("Expected double to be greater than 0! (current value: " + value + ")");
-            }
-
-            return value;
-
-        }
-    );
+    public static final SerializableDataType<Double> POSITIVE_DOUBLE = new DoubleDataType(1D, Double.MAX_VALUE, "Expected double to be greater than 0!");
 
     public static final SerializableDataType<String> STRING = new SerializableDataType<>(
         String.class,
@@ -156,7 +104,7 @@ public final class SerializableDataTypes {
                 buf.writeFloat(number.floatValue());
             } else if(number instanceof Integer) {
                 buf.writeByte(2);
-                buf.writeInt(number.intValue());
+                SyncPacketByteBuf.writeSignedInt(buf, number.intValue());
             } else if(number instanceof Long) {
                 buf.writeByte(3);
                 buf.writeLong(number.longValue());
@@ -173,7 +121,7 @@ public final class SerializableDataTypes {
                 case 1:
                     return buf.readFloat();
                 case 2:
-                    return buf.readInt();
+                    return SyncPacketByteBuf.readSignedInt(buf);
                 case 3:
                     return buf.readLong();
                 case 4:
@@ -387,7 +335,7 @@ public final class SerializableDataTypes {
             } catch (CommandSyntaxException e) {
                 throw new JsonParseException(e);
             }
-        });
+        }).interned();
 
     public static final SerializableDataType<RegistryKey<DamageType>> DAMAGE_TYPE = SerializableDataType.registryKey(RegistryKeys.DAMAGE_TYPE);
 
@@ -628,7 +576,7 @@ public final class SerializableDataTypes {
             inst.set("always_edible", fc.isAlwaysEdible());
             inst.set("snack", fc.isSnack());
             inst.set("effect", null);
-            List<StatusEffectChance> statusEffectChances = new LinkedList<>();
+            List<StatusEffectChance> statusEffectChances = new ArrayList<>();
             fc.getStatusEffects().forEach(pair -> {
                 StatusEffectChance sec = new StatusEffectChance();
                 sec.statusEffectInstance = pair.getFirst();
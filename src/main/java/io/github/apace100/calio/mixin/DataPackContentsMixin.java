@@ -1,6 +1,8 @@
 package io.github.apace100.calio.mixin;
 
 import io.github.apace100.calio.Calio;
+import io.github.apace100.calio.data.ReloadProfiler;
+import io.github.apace100.calio.registry.DataObjectRegistry;
 import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.resource.featuretoggle.FeatureSet;
@@ -20,6 +22,14 @@ public abstract class DataPackContentsMixin {
     @Inject(method = "reload", at = @At("HEAD"))
     private static void calio$cacheDynamicRegistries(ResourceManager manager, DynamicRegistryManager.Immutable dynamicRegistryManager, FeatureSet enabledFeatures, CommandManager.RegistrationEnvironment environment, int functionPermissionLevel, Executor prepareExecutor, Executor applyExecutor, CallbackInfoReturnable<CompletableFuture<DataPackContents>> cir) {
         Calio.DYNAMIC_REGISTRIES.set(dynamicRegistryManager);
+        DataObjectRegistry.onReloadStarted(dynamicRegistryManager);
+    }
+
+    @Inject(method = "reload", at = @At("HEAD"))
+    private static void calio$resetReloadProfiler(ResourceManager manager, DynamicRegistryManager.Immutable dynamicRegistryManager, FeatureSet enabledFeatures, CommandManager.RegistrationEnvironment environment, int functionPermissionLevel, Executor prepareExecutor, Executor applyExecutor, CallbackInfoReturnable<CompletableFuture<DataPackContents>> cir) {
+        if (ReloadProfiler.isEnabled()) {
+            ReloadProfiler.reset();
+        }
     }
 
 }
@@ -1,9 +1,42 @@
 package io.github.apace100.calio.network;
 
 import io.github.apace100.calio.Calio;
+import io.github.apace100.calio.registry.DataObjectRegistry;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Identifier;
 
 public class CalioNetworking {
 
     public static final Identifier SYNC_DATA_OBJECT_REGISTRY = new Identifier("calio", "sync_data_object_registry");
+    public static final Identifier SYNC_DATA_OBJECT_REGISTRY_DELTA = new Identifier("calio", "sync_data_object_registry_delta");
+    public static final Identifier SYNC_DATA_OBJECT_REGISTRY_CHUNK = new Identifier("calio", "sync_data_object_registry_chunk");
+    public static final Identifier ACKNOWLEDGE_DATA_OBJECT_REGISTRY = new Identifier("calio", "acknowledge_data_object_registry");
+
+    public static void registerReceivers() {
+        ServerPlayNetworking.registerGlobalReceiver(ACKNOWLEDGE_DATA_OBJECT_REGISTRY, CalioNetworking::onDataObjectRegistryAcknowledged);
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
+            server.execute(() -> DataObjectRegistry.forgetAcknowledgements(handler.player.getUuid())));
+    }
+
+    private static void onDataObjectRegistryAcknowledged(
+        MinecraftServer server,
+        ServerPlayerEntity player,
+        ServerPlayNetworkHandler handler,
+        PacketByteBuf packetByteBuf,
+        PacketSender packetSender) {
+        Identifier registryId = packetByteBuf.readIdentifier();
+        int version = packetByteBuf.readVarInt();
+        DataObjectRegistry<?> registry = DataObjectRegistry.getRegistry(registryId);
+        if(registry == null) {
+            Calio.LOGGER.warn("Player {} acknowledged unknown data object registry \"{}\"", player.getName().getString(), registryId);
+            return;
+        }
+        server.execute(() -> registry.acknowledge(player, version));
+    }
 }
@@ -1,6 +1,8 @@
 package io.github.apace100.calio.network;
 
+import io.github.apace100.calio.Calio;
 import io.github.apace100.calio.registry.DataObjectRegistry;
+import io.netty.buffer.Unpooled;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
@@ -10,17 +12,60 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Environment(EnvType.CLIENT)
 public class CalioNetworkingClient {
 
+    private static final PayloadChunker.Assembler CHUNK_ASSEMBLER = new PayloadChunker.Assembler();
+
+    // Received registries are decoded by a bounded pool of workers instead of the network thread, so that only swapping
+    // in the decoded entries happens on the client thread. The syncs of a registry are decoded in the order they were
+    // received, by chaining them per registry.
+    private static final int DECODE_PARALLELISM = MathHelper.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+    private static final AtomicInteger DECODE_THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService DECODE_POOL = Executors.newFixedThreadPool(DECODE_PARALLELISM, task -> {
+        Thread thread = new Thread(task, "Calio-Sync-Decoder-" + DECODE_THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<Identifier, CompletableFuture<Void>> DECODE_QUEUES = new ConcurrentHashMap<>();
+    // Incremented on every disconnect. Decoding tasks, swaps and acknowledgements of an earlier connection are skipped,
+    // so that they don't race with the ones of the next server.
+    private static final AtomicInteger CONNECTION_EPOCH = new AtomicInteger();
+
     public static void registerReceivers() {
         ClientPlayConnectionEvents.INIT.register(((clientPlayNetworkHandler, minecraftClient) -> {
             ClientPlayNetworking.registerReceiver(
                 CalioNetworking.SYNC_DATA_OBJECT_REGISTRY,
                 CalioNetworkingClient::onDataObjectRegistrySync
             );
+            ClientPlayNetworking.registerReceiver(
+                CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_DELTA,
+                CalioNetworkingClient::onDataObjectRegistryDeltaSync
+            );
+            ClientPlayNetworking.registerReceiver(
+                CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_CHUNK,
+                CalioNetworkingClient::onDataObjectRegistryChunk
+            );
         }));
+        ClientPlayConnectionEvents.DISCONNECT.register((clientPlayNetworkHandler, minecraftClient) -> {
+            CONNECTION_EPOCH.incrementAndGet();
+            DataObjectRegistry.resetReceivedVersions();
+            CHUNK_ASSEMBLER.clear();
+            DECODE_QUEUES.clear();
+        });
     }
 
     private static void onDataObjectRegistrySync(
@@ -29,10 +74,95 @@ public class CalioNetworkingClient {
         PacketByteBuf packetByteBuf,
         PacketSender packetSender) {
         Identifier registryId = packetByteBuf.readIdentifier();
-        DataObjectRegistry.getRegistry(registryId).receive(packetByteBuf,
-            minecraftClient.isIntegratedServerRunning() ? r -> {} : minecraftClient::execute);
+        // Fails on the network thread like before the registry was decoded by the workers, instead of in a worker
+        DataObjectRegistry<?> registry = Objects.requireNonNull(DataObjectRegistry.getRegistry(registryId));
+        int epoch = CONNECTION_EPOCH.get();
+        Consumer<Runnable> scheduler = getScheduler(minecraftClient, epoch);
+        if(scheduler == null) {
+            return;
+        }
+        // The packet is released once this handler returns, so the decoder gets a copy of the rest of it
+        PacketByteBuf entriesBuf = new PacketByteBuf(Unpooled.copiedBuffer(packetByteBuf));
+        getDecodeExecutor(registryId, epoch).execute(() -> registry.receive(entriesBuf, scheduler));
         /*minecraftClient.execute(() -> {
             DataObjectRegistry.getRegistry(registryId).receive(packetByteBuf);
         });*/
     }
+
+    private static void onDataObjectRegistryDeltaSync(
+        MinecraftClient minecraftClient,
+        ClientPlayNetworkHandler clientPlayNetworkHandler,
+        PacketByteBuf packetByteBuf,
+        PacketSender packetSender) {
+        Identifier registryId = packetByteBuf.readIdentifier();
+        int epoch = CONNECTION_EPOCH.get();
+        DataObjectRegistry.getRegistry(registryId).receiveDelta(packetByteBuf, getDecodeExecutor(registryId, epoch),
+            getScheduler(minecraftClient, epoch), version -> {
+                if(CONNECTION_EPOCH.get() != epoch) {
+                    return;
+                }
+                PacketByteBuf acknowledgement = new PacketByteBuf(Unpooled.buffer());
+                acknowledgement.writeIdentifier(registryId);
+                acknowledgement.writeVarInt(version);
+                ClientPlayNetworking.send(CalioNetworking.ACKNOWLEDGE_DATA_OBJECT_REGISTRY, acknowledgement);
+            });
+    }
+
+    private static void onDataObjectRegistryChunk(
+        MinecraftClient minecraftClient,
+        ClientPlayNetworkHandler clientPlayNetworkHandler,
+        PacketByteBuf packetByteBuf,
+        PacketSender packetSender) {
+        PayloadChunker.Payload payload;
+        try {
+            payload = CHUNK_ASSEMBLER.accept(packetByteBuf);
+        } catch(Exception e) {
+            Calio.LOGGER.error("Could not receive data object registry chunk: {}", e.getMessage());
+            return;
+        }
+        if(payload == null) {
+            return;
+        }
+        try {
+            if(payload.channel().equals(CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_DELTA)) {
+                onDataObjectRegistryDeltaSync(minecraftClient, clientPlayNetworkHandler, payload.buf(), packetSender);
+            } else if(payload.channel().equals(CalioNetworking.SYNC_DATA_OBJECT_REGISTRY)) {
+                onDataObjectRegistrySync(minecraftClient, clientPlayNetworkHandler, payload.buf(), packetSender);
+            } else {
+                Calio.LOGGER.warn("Received chunked payload for unknown channel \"{}\"", payload.channel());
+            }
+        } finally {
+            payload.buf().release();
+        }
+    }
+
+    private static Executor getDecodeExecutor(Identifier registryId, int epoch) {
+        return task -> DECODE_QUEUES.compute(registryId, (id, previous) -> (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+            .thenRunAsync(() -> {
+                if(CONNECTION_EPOCH.get() != epoch) {
+                    return;
+                }
+                try {
+                    task.run();
+                } catch(Exception e) {
+                    Calio.LOGGER.error("Could not receive data object registry \"{}\": {}", id, e.getMessage());
+                }
+            }, DECODE_POOL));
+    }
+
+    /**
+     * Returns the scheduler which applies received entries on the client thread, or null if the registries are shared
+     * with the integrated server, in which case the received entries aren't prepared or applied at all.
+     */
+    @Nullable
+    private static Consumer<Runnable> getScheduler(MinecraftClient minecraftClient, int epoch) {
+        if(minecraftClient.isIntegratedServerRunning()) {
+            return null;
+        }
+        return r -> minecraftClient.execute(() -> {
+            if(CONNECTION_EPOCH.get() == epoch) {
+                r.run();
+            }
+        });
+    }
 }
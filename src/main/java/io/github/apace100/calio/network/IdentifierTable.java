@@ -0,0 +1,92 @@
+package io.github.apace100.calio.network;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only table of identifiers, which lets a {@link SyncPacketByteBuf} encode identifiers as their index in the
+ * table. Since identifiers are never removed or reordered, data encoded with an older state of the table stays valid, and
+ * only the identifiers appended since the receiver last got the table need to be sent.
+ */
+public final class IdentifierTable {
+
+    private final List<Identifier> identifiers = new ArrayList<>();
+    private final Object2IntMap<Identifier> indices = new Object2IntOpenHashMap<>();
+
+    public IdentifierTable() {
+        indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Returns the index of the specified identifier, appending it to the table if it's not in it yet.
+     */
+    public int indexOf(Identifier id) {
+        int index = indices.getInt(id);
+        if(index == -1) {
+            index = identifiers.size();
+            identifiers.add(id);
+            indices.put(id, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the identifier at the specified index.
+     * @throws IndexOutOfBoundsException if there is no identifier at the index
+     */
+    public Identifier get(int index) {
+        return identifiers.get(index);
+    }
+
+    public int size() {
+        return identifiers.size();
+    }
+
+    public void clear() {
+        identifiers.clear();
+        indices.clear();
+    }
+
+    /**
+     * Returns a copy of this table, e.g: for decoding data on another thread while this table keeps growing.
+     */
+    public IdentifierTable copy() {
+        IdentifierTable copy = new IdentifierTable();
+        copy.identifiers.addAll(identifiers);
+        copy.indices.putAll(indices);
+        return copy;
+    }
+
+    /**
+     * Writes the identifiers starting from the specified index, i.e: the identifiers a receiver that has the first
+     * {@code start} identifiers is missing.
+     */
+    public void write(PacketByteBuf buf, int start, int end) {
+        buf.writeVarInt(start);
+        buf.writeVarInt(end - start);
+        for(int i = start; i < end; i++) {
+            buf.writeString(identifiers.get(i).toString());
+        }
+    }
+
+    /**
+     * Reads identifiers written by {@link #write(PacketByteBuf, int, int)} and appends them to this table.
+     * @return false if the identifiers don't continue this table (e.g: some were missed), in which case none are appended
+     */
+    public boolean read(PacketByteBuf buf) {
+        int start = buf.readVarInt();
+        int count = buf.readVarInt();
+        if(start != identifiers.size()) {
+            return false;
+        }
+        for(int i = 0; i < count; i++) {
+            indexOf(new Identifier(buf.readString(32767)));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.apace100.calio.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Splits large payloads into bounded chunks which are sent on {@link CalioNetworking#SYNC_DATA_OBJECT_REGISTRY_CHUNK},
+ * optionally compressing them first, and reassembles them on the receiving side.<br>
+ * Each chunk starts with the ID of its transfer, its index and the total chunk count. The first chunk of a transfer also
+ * contains the channel the reassembled payload is meant for, whether it is compressed and its uncompressed size.
+ */
+public final class PayloadChunker {
+
+    public static final int MAX_CHUNK_SIZE = 64 * 1024;
+    public static final int MAX_PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+    // Preset dictionary for compression, containing strings that are common in encoded data objects. Both sides must
+    // use the exact same dictionary, so changing it requires changing the channel as well.
+    private static final byte[] DICTIONARY = ("minecraft:calio:apoli:origins:"
+        + "attributemodifiereffectstatus_effectamountoperationaddition"
+        + "multiply_basemultiply_totalbiomeblockentityitemfluiddamage"
+        + "conditionactionpowerorigin:multiple:and:or:constant:"
+        + "minecraft:player_entityminecraft:stoneminecraft:air").getBytes(StandardCharsets.UTF_8);
+
+    private static final AtomicInteger NEXT_TRANSFER_ID = new AtomicInteger();
+
+    private PayloadChunker() {}
+
+    /**
+     * Splits the readable bytes of the specified payload into chunks. The reader index of the payload is not modified.
+     * @param channel the channel the reassembled payload is meant for
+     * @param payload the payload to split
+     * @param compress whether the payload should be compressed before it's split
+     * @return the chunks, which must be sent in order
+     */
+    public static List<ByteBuf> split(Identifier channel, ByteBuf payload, boolean compress) {
+        long start = System.nanoTime();
+        ByteBuf source = payload.duplicate();
+        int size = source.readableBytes();
+        if(size > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Payload for channel \"" + channel + "\" is too big (" + size + " bytes, max " + MAX_PAYLOAD_SIZE + ")");
+        }
+        List<ByteBuf> bodies = compress ? deflate(source) : slice(source);
+        int transferId = NEXT_TRANSFER_ID.incrementAndGet();
+        List<ByteBuf> chunks = new ArrayList<>(bodies.size());
+        int encodedSize = 0;
+        for(int i = 0; i < bodies.size(); i++) {
+            ByteBuf body = bodies.get(i);
+            PacketByteBuf chunk = new PacketByteBuf(Unpooled.buffer(body.readableBytes() + 32));
+            chunk.writeVarInt(transferId);
+            chunk.writeVarInt(i);
+            chunk.writeVarInt(bodies.size());
+            if(i == 0) {
+                chunk.writeIdentifier(channel);
+                chunk.writeBoolean(compress);
+                chunk.writeVarInt(size);
+            }
+            chunk.writeBytes(body);
+            encodedSize += chunk.readableBytes();
+            chunks.add(chunk);
+        }
+        SyncMetrics.recordSplit(channel, size, encodedSize, chunks.size(), System.nanoTime() - start);
+        return chunks;
+    }
+
+    private static List<ByteBuf> slice(ByteBuf source) {
+        List<ByteBuf> bodies = new ArrayList<>();
+        do {
+            bodies.add(source.readSlice(Math.min(MAX_CHUNK_SIZE, source.readableBytes())));
+        } while(source.isReadable());
+        return bodies;
+    }
+
+    private static List<ByteBuf> deflate(ByteBuf source) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(source.nioBuffer());
+            deflater.finish();
+            List<ByteBuf> bodies = new ArrayList<>();
+            while(!deflater.finished()) {
+                byte[] body = new byte[MAX_CHUNK_SIZE];
+                int length = 0;
+                while(length < body.length && !deflater.finished()) {
+                    length += deflater.deflate(body, length, body.length - length);
+                }
+                bodies.add(Unpooled.wrappedBuffer(body, 0, length));
+            }
+            return bodies;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * A payload which was reassembled from its chunks. The buffer must be released once it was handled.
+     */
+    public record Payload(Identifier channel, PacketByteBuf buf) {
+
+    }
+
+    /**
+     * Reassembles the chunks of one connection. Chunks of a transfer have to be received in order, but chunks of
+     * different transfers may be interleaved.
+     */
+    public static final class Assembler {
+
+        private final Map<Integer, Assembly> assemblies = new HashMap<>();
+
+        /**
+         * Accepts the next chunk of a transfer.
+         * @return the reassembled payload if this was the last chunk of its transfer, null otherwise
+         * @throws IllegalStateException if the chunk is malformed or out of order, in which case its transfer is discarded
+         */
+        @Nullable
+        public synchronized Payload accept(PacketByteBuf chunk) {
+            int transferId = chunk.readVarInt();
+            int index = chunk.readVarInt();
+            int count = chunk.readVarInt();
+            Assembly assembly;
+            if(index == 0) {
+                Identifier channel = chunk.readIdentifier();
+                boolean compressed = chunk.readBoolean();
+                int size = chunk.readVarInt();
+                if(count <= 0 || size < 0 || size > MAX_PAYLOAD_SIZE) {
+                    throw new IllegalStateException("Invalid transfer " + transferId + " (" + count + " chunks, " + size + " bytes)");
+                }
+                assembly = new Assembly(channel, count, size, compressed);
+                Assembly previous = assemblies.put(transferId, assembly);
+                if(previous != null) {
+                    previous.discard();
+                }
+            } else {
+                assembly = assemblies.get(transferId);
+                if(assembly == null || assembly.nextIndex != index || assembly.count != count) {
+                    discard(transferId);
+                    throw new IllegalStateException("Received chunk " + index + " of unknown or out of order transfer " + transferId);
+                }
+            }
+            try {
+                assembly.append(chunk);
+            } catch(Exception e) {
+                discard(transferId);
+                throw new IllegalStateException("Could not reassemble transfer " + transferId + ": " + e.getMessage(), e);
+            }
+            if(assembly.nextIndex < assembly.count) {
+                return null;
+            }
+            assemblies.remove(transferId);
+            return assembly.complete();
+        }
+
+        /**
+         * Discards all incomplete transfers, e.g: after disconnecting.
+         */
+        public synchronized void clear() {
+            assemblies.values().forEach(Assembly::discard);
+            assemblies.clear();
+        }
+
+        private void discard(int transferId) {
+            Assembly assembly = assemblies.remove(transferId);
+            if(assembly != null) {
+                assembly.discard();
+            }
+        }
+    }
+
+    private static final class Assembly {
+
+        private final Identifier channel;
+        private final int count;
+        private final int size;
+        private final Inflater inflater;
+        private final CompositeByteBuf contents = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        private final long start = System.nanoTime();
+
+        private int nextIndex;
+        private int receivedBytes;
+
+        private Assembly(Identifier channel, int count, int size, boolean compressed) {
+            this.channel = channel;
+            this.count = count;
+            this.size = size;
+            this.inflater = compressed ? new Inflater() : null;
+        }
+
+        private void append(PacketByteBuf chunk) throws DataFormatException {
+            receivedBytes += chunk.readableBytes();
+            if(inflater == null) {
+                if(contents.readableBytes() + chunk.readableBytes() > size) {
+                    throw new DataFormatException("Payload is bigger than announced");
+                }
+                contents.addComponent(true, chunk.readBytes(chunk.readableBytes()));
+            } else {
+                byte[] input = new byte[chunk.readableBytes()];
+                chunk.readBytes(input);
+                inflater.setInput(input);
+                while(!inflater.finished() && !inflater.needsInput()) {
+                    if(inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                        continue;
+                    }
+                    byte[] output = new byte[Math.max(1, Math.min(MAX_CHUNK_SIZE, size - contents.readableBytes()))];
+                    int length = inflater.inflate(output);
+                    if(contents.readableBytes() + length > size) {
+                        throw new DataFormatException("Payload is bigger than announced");
+                    }
+                    if(length > 0) {
+                        contents.addComponent(true, Unpooled.wrappedBuffer(output, 0, length));
+                    }
+                }
+            }
+            nextIndex++;
+        }
+
+        private Payload complete() {
+            if(inflater != null) {
+                inflater.end();
+            }
+            int assembledSize = contents.readableBytes();
+            if(assembledSize != size) {
+                contents.release();
+                throw new IllegalStateException("Payload for channel \"" + channel + "\" is " + assembledSize + " bytes, expected " + size);
+            }
+            SyncMetrics.recordAssembly(channel, size, receivedBytes, count, System.nanoTime() - start);
+            return new Payload(channel, new PacketByteBuf(contents));
+        }
+
+        private void discard() {
+            if(inflater != null) {
+                inflater.end();
+            }
+            contents.release();
+        }
+    }
+}
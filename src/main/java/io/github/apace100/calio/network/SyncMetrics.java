@@ -0,0 +1,74 @@
+package io.github.apace100.calio.network;
+
+import io.github.apace100.calio.Calio;
+import net.minecraft.util.Identifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the sizes and timings of the payloads split and reassembled by {@link PayloadChunker}, since the game was
+ * started. Each payload is also logged on the debug level.
+ */
+public final class SyncMetrics {
+
+    private static final AtomicLong SPLIT_PAYLOADS = new AtomicLong();
+    private static final AtomicLong SPLIT_BYTES = new AtomicLong();
+    private static final AtomicLong SPLIT_ENCODED_BYTES = new AtomicLong();
+    private static final AtomicLong SPLIT_CHUNKS = new AtomicLong();
+    private static final AtomicLong SPLIT_NANOS = new AtomicLong();
+
+    private static final AtomicLong ASSEMBLED_PAYLOADS = new AtomicLong();
+    private static final AtomicLong ASSEMBLED_BYTES = new AtomicLong();
+    private static final AtomicLong ASSEMBLED_RECEIVED_BYTES = new AtomicLong();
+    private static final AtomicLong ASSEMBLED_CHUNKS = new AtomicLong();
+    private static final AtomicLong ASSEMBLED_NANOS = new AtomicLong();
+
+    private SyncMetrics() {}
+
+    static void recordSplit(Identifier channel, int size, int encodedSize, int chunks, long nanos) {
+        SPLIT_PAYLOADS.incrementAndGet();
+        SPLIT_BYTES.addAndGet(size);
+        SPLIT_ENCODED_BYTES.addAndGet(encodedSize);
+        SPLIT_CHUNKS.addAndGet(chunks);
+        SPLIT_NANOS.addAndGet(nanos);
+        Calio.LOGGER.debug("Split payload for channel \"{}\": {} bytes -> {} bytes in {} chunk(s), took {} ms", channel, size, encodedSize, chunks, nanos / 1_000_000.0);
+    }
+
+    static void recordAssembly(Identifier channel, int size, int receivedSize, int chunks, long nanos) {
+        ASSEMBLED_PAYLOADS.incrementAndGet();
+        ASSEMBLED_BYTES.addAndGet(size);
+        ASSEMBLED_RECEIVED_BYTES.addAndGet(receivedSize);
+        ASSEMBLED_CHUNKS.addAndGet(chunks);
+        ASSEMBLED_NANOS.addAndGet(nanos);
+        Calio.LOGGER.debug("Reassembled payload for channel \"{}\": {} bytes from {} bytes in {} chunk(s), took {} ms", channel, size, receivedSize, chunks, nanos / 1_000_000.0);
+    }
+
+    /**
+     * Returns the totals of all payloads that were split so far, i.e: the payloads encoded by this side.
+     */
+    public static Totals getSplitTotals() {
+        return new Totals(SPLIT_PAYLOADS.get(), SPLIT_BYTES.get(), SPLIT_ENCODED_BYTES.get(), SPLIT_CHUNKS.get(), SPLIT_NANOS.get());
+    }
+
+    /**
+     * Returns the totals of all payloads that were reassembled so far, i.e: the payloads received by this side. The time
+     * includes waiting for the chunks to arrive.
+     */
+    public static Totals getAssemblyTotals() {
+        return new Totals(ASSEMBLED_PAYLOADS.get(), ASSEMBLED_BYTES.get(), ASSEMBLED_RECEIVED_BYTES.get(), ASSEMBLED_CHUNKS.get(), ASSEMBLED_NANOS.get());
+    }
+
+    /**
+     * @param payloads the number of payloads
+     * @param bytes the uncompressed size of the payloads
+     * @param encodedBytes the size of the payloads on the wire, including the chunk headers
+     * @param chunks the number of chunks
+     * @param nanos the time spent on the payloads
+     */
+    public record Totals(long payloads, long bytes, long encodedBytes, long chunks, long nanos) {
+
+        public double compressionRatio() {
+            return bytes == 0 ? 1.0 : (double) encodedBytes / bytes;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.apace100.calio.network;
+
+import io.netty.buffer.ByteBuf;
+import net.fabricmc.fabric.api.event.registry.RegistryAttribute;
+import net.fabricmc.fabric.api.event.registry.RegistryAttributeHolder;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A packet buffer used for syncing data object registries, which writes identifiers as VarInt indices into an
+ * {@link IdentifierTable} that is sent separately, instead of writing their full string every time.<br>
+ * Depending on its flags, it also:
+ * <ul>
+ *     <li>writes the values of registries that are synced by Fabric as their raw ID (see {@link #writeRegistryValue(PacketByteBuf, Registry, Object)}),
+ *     since those are the same on the server and the client ({@link #RAW_IDS})</li>
+ *     <li>writes integers, sizes and ordinals as VarInts, and booleans and enum sets as bitsets, through the static helpers
+ *     of this class ({@link #COMPACT})</li>
+ * </ul>
+ * The flags are written alongside the data, so that the receiver can decode it the same way. On any other buffer, the
+ * helpers write the same format as before they were introduced.
+ */
+public class SyncPacketByteBuf extends PacketByteBuf {
+
+    public static final int RAW_IDS = 1;
+    public static final int COMPACT = 1 << 1;
+
+    private final IdentifierTable identifierTable;
+    private final int flags;
+
+    public SyncPacketByteBuf(ByteBuf parent, IdentifierTable identifierTable, int flags) {
+        super(parent);
+        this.identifierTable = identifierTable;
+        this.flags = flags;
+    }
+
+    public IdentifierTable getIdentifierTable() {
+        return identifierTable;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    @Override
+    public PacketByteBuf writeIdentifier(Identifier id) {
+        writeVarInt(identifierTable.indexOf(id));
+        return this;
+    }
+
+    @Override
+    public Identifier readIdentifier() {
+        return identifierTable.get(readVarInt());
+    }
+
+    /**
+     * Returns whether values of the specified registry are written as their raw ID to the specified buffer.
+     */
+    public static boolean usesRawIds(PacketByteBuf buf, Registry<?> registry) {
+        return buf instanceof SyncPacketByteBuf syncBuf
+            && syncBuf.hasFlag(RAW_IDS)
+            && RegistryAttributeHolder.get(registry.getKey()).hasAttribute(RegistryAttribute.SYNCED);
+    }
+
+    /**
+     * Writes the specified registry value, either as its raw ID or as its identifier.
+     */
+    public static <T> void writeRegistryValue(PacketByteBuf buf, Registry<T> registry, T value) {
+        if(usesRawIds(buf, registry)) {
+            buf.writeVarInt(registry.getRawId(value));
+        } else {
+            buf.writeIdentifier(Objects.requireNonNull(registry.getId(value)));
+        }
+    }
+
+    /**
+     * Reads a registry value written by {@link #writeRegistryValue(PacketByteBuf, Registry, Object)}.
+     * @return the value, or an empty optional if the registry doesn't contain it
+     */
+    public static <T> Optional<T> readRegistryValue(PacketByteBuf buf, Registry<T> registry) {
+        if(usesRawIds(buf, registry)) {
+            return Optional.ofNullable(registry.get(buf.readVarInt()));
+        }
+        return registry.getOrEmpty(buf.readIdentifier());
+    }
+
+    /**
+     * Returns whether integers, sizes, ordinals and booleans are written in their compact form to the specified buffer.
+     */
+    public static boolean isCompact(PacketByteBuf buf) {
+        return buf instanceof SyncPacketByteBuf syncBuf
+            && syncBuf.hasFlag(COMPACT);
+    }
+
+    /**
+     * Writes an integer which may be negative, as a zigzag-encoded VarInt if the buffer is compact.
+     */
+    public static void writeSignedInt(PacketByteBuf buf, int value) {
+        if(isCompact(buf)) {
+            buf.writeVarInt((value << 1) ^ (value >> 31));
+        } else {
+            buf.writeInt(value);
+        }
+    }
+
+    public static int readSignedInt(PacketByteBuf buf) {
+        if(isCompact(buf)) {
+            int value = buf.readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+        return buf.readInt();
+    }
+
+    /**
+     * Writes a non-negative integer (e.g: a size, an ordinal or a weight), as a VarInt if the buffer is compact.
+     */
+    public static void writeSize(PacketByteBuf buf, int size) {
+        if(isCompact(buf)) {
+            buf.writeVarInt(size);
+        } else {
+            buf.writeInt(size);
+        }
+    }
+
+    public static int readSize(PacketByteBuf buf) {
+        return isCompact(buf) ? buf.readVarInt() : buf.readInt();
+    }
+
+    /**
+     * Writes the specified booleans, packed into a bitset if the buffer is compact.
+     */
+    public static void writeBooleans(PacketByteBuf buf, boolean... values) {
+        if(isCompact(buf)) {
+            BitSet bitSet = new BitSet(values.length);
+            for(int i = 0; i < values.length; i++) {
+                bitSet.set(i, values[i]);
+            }
+            buf.writeBitSet(bitSet, values.length);
+        } else {
+            for(boolean value : values) {
+                buf.writeBoolean(value);
+            }
+        }
+    }
+
+    public static boolean[] readBooleans(PacketByteBuf buf, int count) {
+        boolean[] values = new boolean[count];
+        if(isCompact(buf)) {
+            BitSet bitSet = buf.readBitSet(count);
+            for(int i = 0; i < count; i++) {
+                values[i] = bitSet.get(i);
+            }
+        } else {
+            for(int i = 0; i < count; i++) {
+                values[i] = buf.readBoolean();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes the specified enum set, as a bitset of the ordinals if the buffer is compact.
+     */
+    public static <E extends Enum<E>> void writeEnumSet(PacketByteBuf buf, EnumSet<E> set, Class<E> enumClass) {
+        if(isCompact(buf)) {
+            buf.writeEnumSet(set, enumClass);
+        } else {
+            buf.writeInt(set.size());
+            set.forEach(e -> buf.writeInt(e.ordinal()));
+        }
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> readEnumSet(PacketByteBuf buf, Class<E> enumClass) {
+        if(isCompact(buf)) {
+            return buf.readEnumSet(enumClass);
+        }
+        int size = buf.readInt();
+        EnumSet<E> set = EnumSet.noneOf(enumClass);
+        E[] allValues = enumClass.getEnumConstants();
+        for(int i = 0; i < size; i++) {
+            set.add(allValues[buf.readInt()]);
+        }
+        return set;
+    }
+}
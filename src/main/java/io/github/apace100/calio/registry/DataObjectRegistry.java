@@ -1,17 +1,30 @@
 package io.github.apace100.calio.registry;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.gson.*;
+import io.github.apace100.calio.Calio;
 import io.github.apace100.calio.ClassUtil;
 import io.github.apace100.calio.data.MultiJsonDataLoader;
+import io.github.apace100.calio.data.MultiJsonDataLoader.UnparsedDataFile;
+import io.github.apace100.calio.data.ParallelPreparation;
+import io.github.apace100.calio.data.ParsedJsonCache;
+import io.github.apace100.calio.data.ReloadProfiler;
 import io.github.apace100.calio.data.SerializableData;
 import io.github.apace100.calio.data.SerializableDataType;
 import io.github.apace100.calio.data.SerializableDataTypes;
 import io.github.apace100.calio.network.CalioNetworking;
+import io.github.apace100.calio.network.IdentifierTable;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
 import io.github.apace100.calio.util.OrderedResourceListeners;
 import io.netty.buffer.Unpooled;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.tag.TagKey;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Identifier;
@@ -20,11 +33,18 @@ import net.minecraft.util.JsonHelper;
 import net.minecraft.util.profiler.Profiler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.quiltmc.parsers.json.JsonReader;
+import org.quiltmc.parsers.json.JsonToken;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 
 public class DataObjectRegistry<T extends DataObject<T>> {
@@ -35,14 +55,36 @@ public class DataObjectRegistry<T extends DataObject<T>> {
     private final Identifier registryId;
     private final Class<T> objectClass;
 
-    private final HashMap<Identifier, T> idToEntry = new HashMap<>();
-    private final HashMap<T, Identifier> entryToId = new HashMap<>();
-    private final HashMap<Identifier, T> staticEntries = new HashMap<>();
+    // The entries are read from the published generation without locking. Single registrations are added to concurrent
+    // copies of the current generation (guarded by this registry), which are published as the generation themselves and
+    // reused for all registrations until the next reload or received sync. Those build the next generation on their own
+    // and publish it at once, so readers never see a partially cleared registry.
+    private volatile Entries<T> entries = Entries.empty();
+    private ConcurrentHashMap<Identifier, T> registeredIdToEntry;
+    private ConcurrentHashMap<T, Identifier> registeredEntryToId;
+    private final Map<Identifier, T> staticEntries = new ConcurrentHashMap<>();
+    private final Set<Identifier> idsView = new AbstractSet<>() {
+
+        @Override
+        public Iterator<Identifier> iterator() {
+            return getEntries().idToEntry().keySet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return getEntries().idToEntry().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o != null && getEntries().idToEntry().containsKey(o);
+        }
+    };
 
     private final String factoryFieldName;
     private final DataObjectFactory<T> defaultFactory;
-    private final HashMap<Identifier, DataObjectFactory<T>> factoriesById = new HashMap<>();
-    private final HashMap<DataObjectFactory<T>, Identifier> factoryToId = new HashMap<>();
+    private final Map<Identifier, DataObjectFactory<T>> factoriesById = new ConcurrentHashMap<>();
+    private final Map<DataObjectFactory<T>, Identifier> factoryToId = new ConcurrentHashMap<>();
 
     private SerializableDataType<T> dataType;
     private SerializableDataType<List<T>> listDataType;
@@ -53,6 +95,26 @@ public class DataObjectRegistry<T extends DataObject<T>> {
 
     private Loader loader;
 
+    private final List<Consumer<ChangeSet>> changeListeners = new ArrayList<>();
+
+    private static final int MAX_SNAPSHOT_HISTORY = 4;
+    private static final int MAX_IDENTIFIER_TABLE_SIZE = 1 << 16;
+    private final Deque<RegistrySnapshot<T>> snapshots = new ArrayDeque<>();
+    private final HashMap<UUID, Integer> acknowledgedVersions = new HashMap<>();
+    // The version all entries were last sent again in after a player's client couldn't apply a delta
+    private final HashMap<UUID, Integer> resentVersions = new HashMap<>();
+    private IdentifierTable identifierTable = new IdentifierTable();
+    private boolean snapshotDirty = true;
+    private int snapshotVersion;
+    // The received version and identifiers are read and written by the thread receiving the deltas, and reset on
+    // disconnect by another thread, so they're only accessed while holding this lock
+    private final Object receiveLock = new Object();
+    private int receivedVersion;
+    private final IdentifierTable receivedIdentifiers = new IdentifierTable();
+    // The generation the last received entries were prepared as, which the next received entries are based on
+    private volatile Entries<T> receivedEntries;
+    private boolean compressSync;
+
     private DataObjectRegistry(Identifier registryId, Class<T> objectClass, String factoryFieldName, DataObjectFactory<T> defaultFactory, Function<JsonElement, JsonElement> jsonPreprocessor) {
         this.registryId = registryId;
         this.objectClass = objectClass;
@@ -81,15 +143,15 @@ public class DataObjectRegistry<T extends DataObject<T>> {
     }
 
     public Identifier getId(T entry) {
-        return entryToId.get(entry);
+        return entry != null ? getEntries().entryToId().get(entry) : null;
     }
 
     public DataObjectFactory<T> getFactory(Identifier id) {
-        return factoriesById.get(id);
+        return id != null ? factoriesById.get(id) : null;
     }
 
     public Identifier getFactoryId(DataObjectFactory<T> factory) {
-        return factoryToId.get(factory);
+        return factory != null ? factoryToId.get(factory) : null;
     }
 
     public void registerFactory(Identifier id, DataObjectFactory<T> factory) {
@@ -97,9 +159,54 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         factoryToId.put(factory, id);
     }
 
-    public void register(Identifier id, T entry) {
-        idToEntry.put(id, entry);
-        entryToId.put(entry, id);
+    public synchronized void register(Identifier id, T entry) {
+        if(registeredIdToEntry == null) {
+            registeredIdToEntry = new ConcurrentHashMap<>(entries.idToEntry());
+            registeredEntryToId = new ConcurrentHashMap<>(entries.entryToId());
+        }
+        T previous = registeredIdToEntry.put(id, entry);
+        if(previous != null) {
+            registeredEntryToId.remove(previous);
+        }
+        registeredEntryToId.put(entry, id);
+        // A new generation of the same maps, so that received entries prepared in the meantime are applied to it
+        entries = new Entries<>(Collections.unmodifiableMap(registeredIdToEntry), Collections.unmodifiableMap(registeredEntryToId));
+        snapshotDirty = true;
+    }
+
+    /**
+     * Replaces all entries of the registry with the static entries and the specified entries at once.
+     * @return the entries of the registry before they were replaced
+     */
+    private synchronized Map<Identifier, T> replaceEntries(Map<Identifier, T> newEntries) {
+        Map<Identifier, T> previousEntries = getEntries().idToEntry();
+        publishEntries(createEntries(newEntries));
+        return previousEntries;
+    }
+
+    /**
+     * Publishes the specified generation, after which registrations are added to copies of it.
+     */
+    private synchronized void publishEntries(Entries<T> newEntries) {
+        entries = newEntries;
+        registeredIdToEntry = null;
+        registeredEntryToId = null;
+        snapshotDirty = true;
+    }
+
+    /**
+     * Creates a generation of the static entries and the specified entries.
+     */
+    private Entries<T> createEntries(Map<Identifier, T> newEntries) {
+        HashMap<Identifier, T> idToEntry = new HashMap<>(staticEntries);
+        idToEntry.putAll(newEntries);
+        HashMap<T, Identifier> entryToId = new HashMap<>(idToEntry.size());
+        idToEntry.forEach((id, entry) -> entryToId.put(entry, id));
+        return new Entries<>(Collections.unmodifiableMap(idToEntry), Collections.unmodifiableMap(entryToId));
+    }
+
+    private Entries<T> getEntries() {
+        return entries;
     }
 
     public void registerStatic(Identifier id, T entry) {
@@ -108,6 +215,7 @@ public class DataObjectRegistry<T extends DataObject<T>> {
     }
 
     public void write(PacketByteBuf buf) {
+        Map<Identifier, T> idToEntry = getEntries().idToEntry();
         buf.writeInt(idToEntry.size() - staticEntries.size());
         for(Map.Entry<Identifier, T> entry : idToEntry.entrySet()) {
             if(staticEntries.containsKey(entry.getKey())) {
@@ -123,7 +231,7 @@ public class DataObjectRegistry<T extends DataObject<T>> {
 
     public void writeDataObject(PacketByteBuf buf, T t) {
         DataObjectFactory<T> factory = t.getFactory();
-        buf.writeIdentifier(factoryToId.get(factory));
+        buf.writeIdentifier(getFactoryId(factory));
         SerializableData.Instance data = factory.toData(t);
         factory.getData().write(buf, data);
     }
@@ -132,7 +240,18 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         receive(buf, Runnable::run);
     }
 
-    public void receive(PacketByteBuf buf, Consumer<Runnable> scheduler) {
+    /**
+     * Receives all entries of the registry, and passes the task that replaces the current entries with them to the
+     * specified scheduler. The entries are decoded and prepared as the next generation of the registry on the calling
+     * thread, so the task itself only swaps the generations and notifies the change listeners.
+     * @param buf the buffer to read from
+     * @param scheduler the scheduler which applies the received entries to the registry, or null if they shouldn't be
+     * applied (e.g: when the registry is shared with the integrated server), in which case they aren't decoded either
+     */
+    public void receive(PacketByteBuf buf, @Nullable Consumer<Runnable> scheduler) {
+        if(scheduler == null) {
+            return;
+        }
         int entryCount = buf.readInt();
         HashMap<Identifier, T> entries = new HashMap<>(entryCount);
         for(int i = 0; i < entryCount; i++) {
@@ -140,10 +259,7 @@ public class DataObjectRegistry<T extends DataObject<T>> {
             T entry = receiveDataObject(buf);
             entries.put(entryId, entry);
         }
-        scheduler.accept(() -> {
-            clear();
-            entries.forEach(this::register);
-        });
+        scheduler.accept(prepareReceivedEntries(true, List.of(), entries));
     }
 
     public T receiveDataObject(PacketByteBuf buf) {
@@ -169,57 +285,343 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         }
         DataObjectFactory<T> factory;
         if(jsonObject.has(factoryFieldName)) {
-            String type = JsonHelper.getString(jsonObject, factoryFieldName);
-            Identifier factoryId = null;
-            try {
-                factoryId = new Identifier(type);
-            } catch (InvalidIdentifierException e) {
-                throw new JsonParseException(
-                    "Could not read data object of type \"" + registryId +
-                        "\": invalid factory identifier (id: \"" + factoryId + "\").", e);
-            }
-            if(!factoriesById.containsKey(factoryId)) {
-                throw new JsonParseException(
-                    "Could not read data object of type \"" + registryId +
-                        "\": unknown factory (id: \"" + factoryId + "\").");
-            }
-            factory = getFactory(factoryId);
+            factory = resolveFactory(JsonHelper.getString(jsonObject, factoryFieldName));
         } else {
             factory = defaultFactory;
         }
+        ReloadProfiler.Sample sample = ReloadProfiler.begin();
         SerializableData.Instance data = factory.getData().read(jsonObject);
-        return factory.fromData(data);
+        T t = factory.fromData(data);
+        ReloadProfiler.recordDecode(sample, registryId, getFactoryId(factory));
+        return t;
+    }
+
+    /**
+     * Reads a data object from the next value of the specified token stream. If the value is an object whose first field
+     * is the factory field, the rest of it is streamed into the serializable data of the factory without building a tree.
+     * Otherwise (or if the registry has a JSON preprocessor), the value needs random access, so it's read as a tree and
+     * passed to {@link #readDataObject(JsonElement)}.
+     */
+    public T readDataObject(JsonReader reader) throws IOException {
+        if(jsonPreprocessor != null || reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return readDataObject(SerializableDataType.readElement(reader));
+        }
+        reader.beginObject();
+        if(!reader.hasNext()) {
+            reader.endObject();
+            return readDataObject(new JsonObject());
+        }
+        String firstName = reader.nextName();
+        if(!firstName.equals(factoryFieldName)) {
+            JsonObject jsonObject = new JsonObject();
+            jsonObject.add(firstName, SerializableDataType.readElement(reader));
+            while(reader.hasNext()) {
+                jsonObject.add(reader.nextName(), SerializableDataType.readElement(reader));
+            }
+            reader.endObject();
+            return readDataObject(jsonObject);
+        }
+        DataObjectFactory<T> factory = resolveFactory(reader.nextString());
+        ReloadProfiler.Sample sample = ReloadProfiler.begin();
+        SerializableData.Instance data = factory.getData().readRemaining(reader);
+        T t = factory.fromData(data);
+        ReloadProfiler.recordDecode(sample, registryId, getFactoryId(factory));
+        return t;
+    }
+
+    private DataObjectFactory<T> resolveFactory(String type) {
+        Identifier factoryId = null;
+        try {
+            factoryId = new Identifier(type);
+        } catch (InvalidIdentifierException e) {
+            throw new JsonParseException(
+                "Could not read data object of type \"" + registryId +
+                    "\": invalid factory identifier (id: \"" + factoryId + "\").", e);
+        }
+        if(!factoriesById.containsKey(factoryId)) {
+            throw new JsonParseException(
+                "Could not read data object of type \"" + registryId +
+                    "\": unknown factory (id: \"" + factoryId + "\").");
+        }
+        return getFactory(factoryId);
+    }
+
+    /**
+     * Receives the entries which were added, changed or removed since the version this client last received.
+     * @param buf the buffer to read from
+     * @param scheduler the scheduler which applies the received entries to the registry, or null if they shouldn't be
+     * applied (e.g: when the registry is shared with the integrated server), in which case they aren't decoded either
+     * @param acknowledgement the consumer of the version which should be acknowledged to the server, which is 0 if the
+     * delta couldn't be applied and the server should send all entries again
+     */
+    public void receiveDelta(PacketByteBuf buf, @Nullable Consumer<Runnable> scheduler, IntConsumer acknowledgement) {
+        receiveDelta(buf, Runnable::run, scheduler, acknowledgement, false);
+    }
+
+    /**
+     * Receives the entries which were added, changed or removed since the version this client last received. Only the
+     * versions and identifiers are read on the calling thread; the entries are decoded and prepared as the next
+     * generation of the registry by the specified executor, after which the task that swaps the generations is passed
+     * to the scheduler. The version to acknowledge is only known once the entries are decoded, so it's passed to the
+     * acknowledgement consumer by the executor as well.
+     * @param buf the buffer to read from
+     * @param decodeExecutor the executor which decodes the entries; it must run the tasks of a registry in order
+     * @param scheduler the scheduler which applies the received entries to the registry, or null if they shouldn't be
+     * applied (e.g: when the registry is shared with the integrated server), in which case they aren't decoded either
+     * @param acknowledgement the consumer of the version which should be acknowledged to the server, which is 0 if the
+     * delta couldn't be applied and the server should send all entries again
+     */
+    public void receiveDelta(PacketByteBuf buf, Executor decodeExecutor, @Nullable Consumer<Runnable> scheduler, IntConsumer acknowledgement) {
+        receiveDelta(buf, decodeExecutor, scheduler, acknowledgement, true);
+    }
+
+    private void receiveDelta(PacketByteBuf buf, Executor decodeExecutor, @Nullable Consumer<Runnable> scheduler, IntConsumer acknowledgement, boolean copyIdentifiers) {
+        synchronized(receiveLock) {
+            receiveDeltaLocked(buf, decodeExecutor, scheduler, acknowledgement, copyIdentifiers);
+        }
+    }
+
+    private void receiveDeltaLocked(PacketByteBuf buf, Executor decodeExecutor, @Nullable Consumer<Runnable> scheduler, IntConsumer acknowledgement, boolean copyIdentifiers) {
+        int baseVersion = buf.readVarInt();
+        int version = buf.readVarInt();
+        int flags = buf.readUnsignedByte();
+        if(baseVersion != 0 && baseVersion != receivedVersion) {
+            receivedVersion = 0;
+            // Acknowledged by the executor, so that it's not sent before the acknowledgements of the previous deltas
+            decodeExecutor.execute(() -> acknowledgement.accept(0));
+            return;
+        }
+        if(baseVersion == 0) {
+            receivedIdentifiers.clear();
+        }
+        if(!receivedIdentifiers.read(buf)) {
+            receivedVersion = 0;
+            decodeExecutor.execute(() -> acknowledgement.accept(0));
+            return;
+        }
+        SyncPacketByteBuf syncBuf = new SyncPacketByteBuf(buf, receivedIdentifiers, flags);
+        int removedCount = syncBuf.readVarInt();
+        List<Identifier> removed = new ArrayList<>(removedCount);
+        for(int i = 0; i < removedCount; i++) {
+            removed.add(syncBuf.readIdentifier());
+        }
+        int entryCount = syncBuf.readVarInt();
+        List<Identifier> entryIds = new ArrayList<>(entryCount);
+        List<byte[]> entryBytes = new ArrayList<>(entryCount);
+        for(int i = 0; i < entryCount; i++) {
+            entryIds.add(syncBuf.readIdentifier());
+            entryBytes.add(syncBuf.readByteArray());
+        }
+        receivedVersion = version;
+        // The table keeps growing with the next deltas, so the entries are decoded with a copy of its current state
+        IdentifierTable identifiers = copyIdentifiers && scheduler != null ? receivedIdentifiers.copy() : receivedIdentifiers;
+        decodeExecutor.execute(() -> {
+            if(scheduler == null) {
+                acknowledgement.accept(version);
+                return;
+            }
+            HashMap<Identifier, T> entries = new HashMap<>(entryCount);
+            for(int i = 0; i < entryCount; i++) {
+                Identifier entryId = entryIds.get(i);
+                PacketByteBuf entryBuf = new SyncPacketByteBuf(Unpooled.wrappedBuffer(entryBytes.get(i)), identifiers, flags);
+                try {
+                    entries.put(entryId, receiveDataObject(entryBuf));
+                } catch(Exception e) {
+                    // Left out instead of asking for all entries again, since decoding the entry would most likely fail
+                    // the same way again (e.g: an unknown factory)
+                    Calio.LOGGER.error("Could not receive entry \"{}\" of data object registry \"{}\": {}", entryId, registryId, e.getMessage());
+                }
+            }
+            scheduler.accept(prepareReceivedEntries(baseVersion == 0, removed, entries));
+            acknowledgement.accept(version);
+        });
+    }
+
+    /**
+     * Prepares the next generation of the registry from received entries, based on the generation the previously
+     * received entries were prepared as. The returned task swaps the generations in constant time, unless the registry
+     * changed otherwise in the meantime, in which case the received entries are applied to its current generation.
+     * @param replaceAll whether the received entries replace all entries, instead of only the specified ones
+     * @param removed the IDs of the entries to remove
+     * @param received the entries to add or replace
+     */
+    private Runnable prepareReceivedEntries(boolean replaceAll, Collection<Identifier> removed, Map<Identifier, T> received) {
+        Entries<T> base = receivedEntries != null ? receivedEntries : getEntries();
+        Entries<T> next = applyReceivedEntries(base, replaceAll, removed, received);
+        ChangeSet changeSet = ChangeSet.between(base.idToEntry(), next.idToEntry());
+        receivedEntries = next;
+        return () -> {
+            ChangeSet appliedChangeSet = changeSet;
+            synchronized(this) {
+                Entries<T> current = getEntries();
+                Entries<T> applied = next;
+                if(current != base) {
+                    applied = applyReceivedEntries(current, replaceAll, removed, received);
+                    appliedChangeSet = ChangeSet.between(current.idToEntry(), applied.idToEntry());
+                }
+                publishEntries(applied);
+            }
+            onChanged(appliedChangeSet);
+        };
+    }
+
+    private Entries<T> applyReceivedEntries(Entries<T> base, boolean replaceAll, Collection<Identifier> removed, Map<Identifier, T> received) {
+        Map<Identifier, T> nextEntries = new HashMap<>();
+        if(!replaceAll) {
+            base.idToEntry().forEach((id, entry) -> {
+                if(!removed.contains(id)) {
+                    nextEntries.put(id, entry);
+                }
+            });
+        }
+        nextEntries.putAll(received);
+        return createEntries(nextEntries);
+    }
+
+    /**
+     * Returns the snapshot of the current synced entries of the registry. A new snapshot version is only created if the
+     * entries changed since the last snapshot was taken.
+     */
+    public RegistrySnapshot<T> getSnapshot() {
+        RegistrySnapshot<T> latest = snapshots.peekLast();
+        if(latest != null && !snapshotDirty) {
+            return latest;
+        }
+        if(identifierTable.size() > MAX_IDENTIFIER_TABLE_SIZE) {
+            // The identifier table only grows, so start over once it got too big. Clients will receive all entries again.
+            snapshots.forEach(RegistrySnapshot::releasePackets);
+            snapshots.clear();
+            identifierTable = new IdentifierTable();
+            latest = null;
+        }
+        Map<Identifier, T> syncedEntries = new LinkedHashMap<>();
+        getEntries().idToEntry().forEach((id, entry) -> {
+            if(!staticEntries.containsKey(id)) {
+                syncedEntries.put(id, entry);
+            }
+        });
+        RegistrySnapshot<T> snapshot = RegistrySnapshot.create(snapshotVersion + 1, syncedEntries, identifierTable, SyncPacketByteBuf.RAW_IDS | SyncPacketByteBuf.COMPACT, this::writeDataObject);
+        snapshotDirty = false;
+        if(latest != null && latest.hasSameContents(snapshot)) {
+            return latest;
+        }
+        snapshotVersion = snapshot.getVersion();
+        if(latest != null) {
+            latest.releasePackets();
+        }
+        snapshots.addLast(snapshot);
+        if(snapshots.size() > MAX_SNAPSHOT_HISTORY) {
+            snapshots.removeFirst();
+        }
+        return snapshot;
     }
 
+    @Nullable
+    private RegistrySnapshot<T> getSnapshot(int version) {
+        for(RegistrySnapshot<T> snapshot : snapshots) {
+            if(snapshot.getVersion() == version) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Syncs the registry to the specified player. If the client of the player supports it, only the entries which
+     * changed since the version the client acknowledged are sent, otherwise all entries are sent. The packets are
+     * encoded once per registry version and shared between all players, and are split into bounded chunks (which are
+     * compressed if the registry was built with {@link Builder#compressSync()}) if the client supports it.<br>
+     * Calio itself only syncs the registries when a player joins, and forgets the acknowledged versions when they leave,
+     * so that sync always sends all entries. To only send the changed entries (e.g: after a data pack reload), this needs
+     * to be called for the online players by the caller.
+     * @param player the player to sync the registry to
+     */
     public void sync(ServerPlayerEntity player) {
-        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
-        buf.writeIdentifier(registryId);
-        write(buf);
-        ServerPlayNetworking.send(player, CalioNetworking.SYNC_DATA_OBJECT_REGISTRY, buf);
+        RegistrySnapshot<T> snapshot = getSnapshot();
+        if(!ServerPlayNetworking.canSend(player, CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_DELTA)) {
+            ServerPlayNetworking.send(player, CalioNetworking.SYNC_DATA_OBJECT_REGISTRY, snapshot.createFullPacket(registryId));
+            return;
+        }
+        RegistrySnapshot<T> base = getSnapshot(acknowledgedVersions.getOrDefault(player.getUuid(), 0));
+        if(base == snapshot) {
+            return;
+        }
+        if(ServerPlayNetworking.canSend(player, CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_CHUNK)) {
+            for(PacketByteBuf chunk : snapshot.createChunkedDeltaPackets(registryId, base, compressSync)) {
+                ServerPlayNetworking.send(player, CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_CHUNK, chunk);
+            }
+        } else {
+            ServerPlayNetworking.send(player, CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_DELTA, snapshot.createDeltaPacket(registryId, base));
+        }
+    }
+
+    /**
+     * Records the version of the registry the client of the specified player has. A version of 0 means the client
+     * couldn't apply the last delta, in which case all entries are sent again, at most once per version of the registry.
+     * The next {@link #sync(ServerPlayerEntity)} of the player only sends the entries that changed since the acknowledged
+     * version, but calling it is up to the caller.
+     */
+    public void acknowledge(ServerPlayerEntity player, int version) {
+        if(version == 0) {
+            acknowledgedVersions.remove(player.getUuid());
+            int snapshotVersion = getSnapshot().getVersion();
+            Integer resentVersion = resentVersions.put(player.getUuid(), snapshotVersion);
+            if(resentVersion != null && resentVersion == snapshotVersion) {
+                Calio.LOGGER.warn("Client of player \"{}\" couldn't apply data object registry \"{}\" after it was sent again", player.getName().getString(), registryId);
+                return;
+            }
+            sync(player);
+        } else {
+            acknowledgedVersions.put(player.getUuid(), version);
+        }
+    }
+
+    /**
+     * Adds a listener that is notified with the IDs of the entries that were added, removed or modified whenever the
+     * registry is reloaded from data or received from the server.
+     * @param listener the listener to notify
+     */
+    public void addChangeListener(Consumer<ChangeSet> listener) {
+        changeListeners.add(listener);
+    }
+
+    private void onChanged(ChangeSet changeSet) {
+        if(changeSet.isEmpty()) {
+            return;
+        }
+        for(Consumer<ChangeSet> listener : changeListeners) {
+            listener.accept(changeSet);
+        }
     }
 
     public void clear() {
-        idToEntry.clear();
-        entryToId.clear();
-        staticEntries.forEach(this::register);
+        replaceEntries(Map.of());
     }
 
     @Nullable
     public T get(Identifier id) {
-        return idToEntry.get(id);
+        // The maps of registrations are concurrent, which don't support null keys
+        return id != null ? getEntries().idToEntry().get(id) : null;
     }
 
+    /**
+     * Returns a view of the IDs of the entries, which always reflects the current entries of the registry. The returned
+     * set can't be modified.
+     */
     public Set<Identifier> getIds() {
-        return idToEntry.keySet();
+        return idsView;
     }
 
     public boolean containsId(Identifier id) {
-        return idToEntry.containsKey(id);
+        return id != null && getEntries().idToEntry().containsKey(id);
     }
 
+    /**
+     * Returns an iterator over the current entries, which isn't affected by the registry being reloaded while iterating.
+     */
     @NotNull
     public Iterator<T> iterator() {
-        return idToEntry.values().iterator();
+        return getEntries().idToEntry().values().iterator();
     }
 
     public SerializableDataType<T> dataType() {
@@ -277,6 +679,41 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         }
     }
 
+    /**
+     * Forgets the registry versions acknowledged by the specified player, e.g: after they disconnected.
+     */
+    public static void forgetAcknowledgements(UUID playerUuid) {
+        for(DataObjectRegistry<?> registry : REGISTRIES.values()) {
+            registry.acknowledgedVersions.remove(playerUuid);
+            registry.resentVersions.remove(playerUuid);
+        }
+    }
+
+    /**
+     * Resets the registry versions and identifier tables received by this client, e.g: after disconnecting from a server.
+     */
+    public static void resetReceivedVersions() {
+        for(DataObjectRegistry<?> registry : REGISTRIES.values()) {
+            synchronized(registry.receiveLock) {
+                registry.receivedVersion = 0;
+                registry.receivedIdentifiers.clear();
+            }
+            registry.receivedEntries = null;
+        }
+    }
+
+    /**
+     * Passes the dynamic registries of a data pack reload that is starting to the loaders of all registries, for the
+     * entries that are decoded while preparing the reload.
+     */
+    public static void onReloadStarted(DynamicRegistryManager dynamicRegistries) {
+        for(DataObjectRegistry<?> registry : REGISTRIES.values()) {
+            if(registry.loader != null) {
+                registry.loader.dynamicRegistries = dynamicRegistries;
+            }
+        }
+    }
+
     private class Loader extends MultiJsonDataLoader implements IdentifiableResourceReloadListener {
 
         private static final Gson GSON = (new GsonBuilder()).setPrettyPrinting().disableHtmlEscaping().create();
@@ -284,39 +721,229 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         private final boolean useLoadingPriority;
         private final BiConsumer<Identifier, Exception> errorHandler;
 
+        private final String dataFolder;
+
+        // Only the hashes of the data of the previous reload are kept, and only for the IDs that decoded without errors
+        private static final HashFunction DATA_HASH_FUNCTION = Hashing.murmur3_128();
+        private boolean incremental;
+        private Map<Identifier, HashCode> previousDataHashes = new HashMap<>();
+        private Map<Identifier, T> previousLoadedEntries = new HashMap<>();
+
+        // In streaming mode, the data files are only listed during preparation and read as a token stream when applying
+        private boolean streaming;
+        private List<UnparsedDataFile> unparsedDataFiles;
+
+        // When decoding during preparation, the entries are decoded on the threads preparing the reload, and applying
+        // only publishes them
+        private boolean decodeInPreparation;
+        private Map<Identifier, PreparedEntry<T>> preparedEntries;
+        // The dynamic registries of the reload that is being prepared, which are only kept until it's prepared
+        private volatile DynamicRegistryManager dynamicRegistries;
+
         public Loader(String dataFolder, boolean useLoadingPriority, BiConsumer<Identifier, Exception> errorHandler) {
             super(GSON, dataFolder);
+            this.dataFolder = dataFolder;
             this.useLoadingPriority = useLoadingPriority;
             this.errorHandler = errorHandler;
         }
 
         @Override
-        protected void apply(Map<Identifier, List<JsonElement>> data, ResourceManager manager, Profiler profiler) {
-            clear();
-            LOADING_PRIORITIES.clear();
-            data.forEach((id, jel) -> {
-                for(JsonElement je : jel) {
+        protected Map<Identifier, List<JsonElement>> prepare(ResourceManager manager, Profiler profiler) {
+            if(decodeInPreparation) {
+                Map<Identifier, List<JsonElement>> data = super.prepare(manager, profiler);
+                profiler.push(dataFolder);
+                profiler.push("decode");
+                List<Identifier> ids = new ArrayList<>(data.keySet());
+                DynamicRegistryManager dynamicRegistries = this.dynamicRegistries;
+                this.dynamicRegistries = null;
+                List<PreparedEntry<T>> entries = ParallelPreparation.map(ids, isParallelPreparation(), id -> prepareEntry(id, data.get(id), dynamicRegistries));
+                Map<Identifier, PreparedEntry<T>> preparedEntries = new LinkedHashMap<>();
+                for(int i = 0; i < ids.size(); i++) {
+                    preparedEntries.put(ids.get(i), entries.get(i));
+                }
+                this.preparedEntries = preparedEntries;
+                profiler.pop();
+                profiler.pop();
+                // The parsed trees aren't needed anymore, since the entries are already decoded
+                return Map.of();
+            }
+            this.dynamicRegistries = null;
+            if(!streaming) {
+                return super.prepare(manager, profiler);
+            }
+            profiler.push(dataFolder);
+            unparsedDataFiles = findUnparsedDataFiles(manager);
+            profiler.pop();
+            return Map.of();
+        }
+
+        /**
+         * Decodes the entry with the specified ID from its data files, the same way as when applying. Since this runs on
+         * the threads preparing the reload, errors are kept for the error handler (which is called when applying), and the
+         * ID of the data file and the dynamic registries are set for the current thread only. Tags aren't loaded yet at
+         * this point, so the tags referenced by the entry are kept to be checked for existence when applying.
+         */
+        private PreparedEntry<T> prepareEntry(Identifier id, List<JsonElement> jsonElements, @Nullable DynamicRegistryManager dynamicRegistries) {
+            T entry = null;
+            int entryLoadingPriority = 0;
+            List<Exception> errors = new ArrayList<>(0);
+            Set<TagKey<?>> uncheckedTags = new HashSet<>();
+            DynamicRegistryManager previousDynamicRegistries = Calio.DYNAMIC_REGISTRIES.get();
+            Calio.DYNAMIC_REGISTRIES.set(dynamicRegistries);
+            Calio.UNCHECKED_TAGS.set(uncheckedTags);
+            SerializableData.setCurrentId(id);
+            try {
+                for(JsonElement je : jsonElements) {
                     try {
-                        SerializableData.CURRENT_NAMESPACE = id.getNamespace();
-                        SerializableData.CURRENT_PATH = id.getPath();
                         JsonObject jo = je.getAsJsonObject();
                         T t = readDataObject(je);
                         if(useLoadingPriority) {
                             int loadingPriority = JsonHelper.getInt(jo, "loading_priority", 0);
-                            if(!containsId(id) || LOADING_PRIORITIES.get(id) < loadingPriority) {
-                                LOADING_PRIORITIES.put(id, loadingPriority);
-                                register(id, t);
+                            if(entry == null || entryLoadingPriority < loadingPriority) {
+                                entry = t;
+                                entryLoadingPriority = loadingPriority;
                             }
                         } else {
-                            register(id, t);
+                            entry = t;
                         }
-                    } catch (Exception e) {
-                        if(errorHandler != null) {
-                            errorHandler.accept(id, e);
+                    } catch(Exception e) {
+                        errors.add(e);
+                    }
+                }
+            } finally {
+                SerializableData.setCurrentId(null);
+                Calio.UNCHECKED_TAGS.remove();
+                Calio.DYNAMIC_REGISTRIES.set(previousDynamicRegistries);
+            }
+            return new PreparedEntry<>(entry, errors, uncheckedTags);
+        }
+
+        @Override
+        protected void apply(Map<Identifier, List<JsonElement>> data, ResourceManager manager, Profiler profiler) {
+            profiler.push(registryId.toString());
+            ReloadProfiler.Sample sample = ReloadProfiler.begin();
+            // The entries are decoded into the next generation, which replaces the current one once all are decoded
+            Map<Identifier, T> loadedEntries = new HashMap<>();
+            Map<Identifier, T> nextEntries = new HashMap<>(staticEntries);
+            LOADING_PRIORITIES.clear();
+            profiler.push("decode");
+            if(unparsedDataFiles != null) {
+                unparsedDataFiles.forEach(dataFile -> applyStreamed(dataFile, loadedEntries, nextEntries));
+                unparsedDataFiles = null;
+            }
+            if(preparedEntries != null) {
+                preparedEntries.forEach((id, preparedEntry) -> {
+                    List<Exception> errors = new ArrayList<>(preparedEntry.errors());
+                    T entry = preparedEntry.entry();
+                    for(TagKey<?> tagKey : preparedEntry.uncheckedTags()) {
+                        if(Calio.isTagMissing(tagKey)) {
+                            errors.add(new IllegalArgumentException("Tag \"" + tagKey.id() + "\" for registry \"" + tagKey.registry().getValue() + "\" doesn't exist."));
+                            entry = null;
                         }
                     }
+                    if(errorHandler != null) {
+                        errors.forEach(e -> errorHandler.accept(id, e));
+                    }
+                    if(entry != null) {
+                        loadedEntries.put(id, entry);
+                        nextEntries.put(id, entry);
+                    }
+                });
+                preparedEntries = null;
+            }
+            Map<Identifier, HashCode> dataHashes = new HashMap<>();
+            Map<Identifier, T> reusableEntries = new HashMap<>();
+            data.forEach((id, jel) -> {
+                HashCode dataHash = incremental ? hashData(jel) : null;
+                if(dataHash != null && previousLoadedEntries.containsKey(id) && dataHash.equals(previousDataHashes.get(id))) {
+                    // The data of this entry didn't change since the last reload, so keep the previous instance
+                    T t = previousLoadedEntries.get(id);
+                    loadedEntries.put(id, t);
+                    nextEntries.put(id, t);
+                    dataHashes.put(id, dataHash);
+                    reusableEntries.put(id, t);
+                    return;
+                }
+                boolean failed = false;
+                setCurrentId(id);
+                try {
+                    for(JsonElement je : jel) {
+                        try {
+                            JsonObject jo = je.getAsJsonObject();
+                            T t = readDataObject(je);
+                            if(useLoadingPriority) {
+                                int loadingPriority = JsonHelper.getInt(jo, "loading_priority", 0);
+                                if(!nextEntries.containsKey(id) || LOADING_PRIORITIES.get(id) < loadingPriority) {
+                                    LOADING_PRIORITIES.put(id, loadingPriority);
+                                    loadedEntries.put(id, t);
+                                    nextEntries.put(id, t);
+                                }
+                            } else {
+                                loadedEntries.put(id, t);
+                                nextEntries.put(id, t);
+                            }
+                        } catch (Exception e) {
+                            failed = true;
+                            if(errorHandler != null) {
+                                errorHandler.accept(id, e);
+                            }
+                        }
+                    }
+                } finally {
+                    SerializableData.setCurrentId(null);
+                }
+                if(dataHash != null && !failed && loadedEntries.containsKey(id)) {
+                    dataHashes.put(id, dataHash);
+                    reusableEntries.put(id, loadedEntries.get(id));
                 }
             });
+            if(incremental) {
+                previousDataHashes = dataHashes;
+                previousLoadedEntries = reusableEntries;
+            }
+            profiler.swap("notify_listeners");
+            Map<Identifier, T> previousEntries = replaceEntries(nextEntries);
+            onChanged(ChangeSet.between(previousEntries, getEntries().idToEntry()));
+            ReloadProfiler.recordApply(sample, registryId);
+            profiler.pop();
+            profiler.pop();
+        }
+
+        /**
+         * Sets the ID of the data file that is being read on the applying thread. The static fields are still assigned
+         * for the mods that read them, like they were before the data files could be read on other threads.
+         */
+        private static void setCurrentId(Identifier id) {
+            SerializableData.CURRENT_NAMESPACE = id.getNamespace();
+            SerializableData.CURRENT_PATH = id.getPath();
+            SerializableData.setCurrentId(id);
+        }
+
+        private static HashCode hashData(List<JsonElement> jsonElements) {
+            Hasher hasher = DATA_HASH_FUNCTION.newHasher();
+            for(JsonElement je : jsonElements) {
+                String json = je.toString();
+                hasher.putInt(json.length()).putString(json, StandardCharsets.UTF_8);
+            }
+            return hasher.hash();
+        }
+
+        private void applyStreamed(UnparsedDataFile dataFile, Map<Identifier, T> loadedEntries, Map<Identifier, T> nextEntries) {
+            Identifier id = dataFile.id();
+            ReloadProfiler.Sample sample = ReloadProfiler.begin();
+            setCurrentId(id);
+            try(JsonReader reader = dataFile.openReader()) {
+                T t = readDataObject(reader);
+                loadedEntries.put(id, t);
+                nextEntries.put(id, t);
+            } catch (Exception e) {
+                if(errorHandler != null) {
+                    errorHandler.accept(id, e);
+                }
+            } finally {
+                SerializableData.setCurrentId(null);
+                ReloadProfiler.recordReadDecode(sample, dataFolder, dataFile.resource().getResourcePackName(), dataFile.fileId());
+            }
         }
 
         @Override
@@ -325,6 +952,58 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         }
     }
 
+    /**
+     * An entry decoded while preparing a reload, along with the errors of the data files it was decoded from.
+     * @param entry the decoded entry, or null if none of its data files could be decoded
+     * @param uncheckedTags the tags referenced by the data files, which weren't loaded yet when decoding them
+     */
+    private record PreparedEntry<T>(@Nullable T entry, List<Exception> errors, Set<TagKey<?>> uncheckedTags) {
+
+    }
+
+    /**
+     * A generation of the entries of a registry. Neither map is modified after the generation is published, apart from
+     * the maps single registrations are added to, which are replaced by the next reload or received sync.
+     */
+    private record Entries<T>(Map<Identifier, T> idToEntry, Map<T, Identifier> entryToId) {
+
+        private static <T> Entries<T> empty() {
+            return new Entries<>(Collections.emptyMap(), Collections.emptyMap());
+        }
+    }
+
+    /**
+     * The IDs of the entries that changed after the registry was reloaded or received.
+     * @param added the IDs of the entries that didn't exist before
+     * @param removed the IDs of the entries that don't exist anymore
+     * @param modified the IDs of the entries that were replaced by a different instance
+     */
+    public record ChangeSet(Set<Identifier> added, Set<Identifier> removed, Set<Identifier> modified) {
+
+        public static <T> ChangeSet between(Map<Identifier, T> before, Map<Identifier, T> after) {
+            Set<Identifier> added = new HashSet<>();
+            Set<Identifier> removed = new HashSet<>();
+            Set<Identifier> modified = new HashSet<>();
+            after.forEach((id, entry) -> {
+                if(!before.containsKey(id)) {
+                    added.add(id);
+                } else if(before.get(id) != entry) {
+                    modified.add(id);
+                }
+            });
+            for(Identifier id : before.keySet()) {
+                if(!after.containsKey(id)) {
+                    removed.add(id);
+                }
+            }
+            return new ChangeSet(Collections.unmodifiableSet(added), Collections.unmodifiableSet(removed), Collections.unmodifiableSet(modified));
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+        }
+    }
+
     public static class Builder<T extends DataObject<T>> {
 
         private final Identifier registryId;
@@ -337,6 +1016,13 @@ public class DataObjectRegistry<T extends DataObject<T>> {
         private boolean readFromData = false;
         private boolean useLoadingPriority;
         private BiConsumer<Identifier, Exception> errorHandler;
+        private boolean parallelPreparation;
+        private boolean cacheParsedJson;
+        private boolean incrementalReload;
+        private boolean dependsOnReloadState;
+        private boolean compressSync;
+        private boolean streamingDecode;
+        private boolean decodeInPreparation;
 
         public Builder(Identifier registryId, Class<T> objectClass) {
             this.registryId = registryId;
@@ -378,13 +1064,94 @@ public class DataObjectRegistry<T extends DataObject<T>> {
             return this;
         }
 
+        /**
+         *  Makes the loader of the registry parse the data files across a pool of worker threads, instead of parsing them
+         *  one after another. Only has an effect if the registry reads from data.
+         */
+        public Builder<T> parallelPreparation() {
+            this.parallelPreparation = true;
+            return this;
+        }
+
+        /**
+         *  Makes the loader of the registry keep an on-disk cache of the parsed data files, so that data files that didn't
+         *  change since the last reload don't need to be parsed again. Only has an effect if the registry reads from data.
+         */
+        public Builder<T> cacheParsedJson() {
+            this.cacheParsedJson = true;
+            return this;
+        }
+
+        /**
+         *  Makes the loader of the registry only decode the entries whose data changed since the last reload, keeping the
+         *  instances of the unchanged entries that decoded without errors. Only has an effect if the registry reads from
+         *  data, and its decoding doesn't {@linkplain #dependsOnReloadState() depend on the state of the reload}.<br>
+         *  Note that entries are then not decoded again if only data they depend on (e.g: tags or other registries) changed.
+         */
+        public Builder<T> incrementalReload() {
+            this.incrementalReload = true;
+            return this;
+        }
+
+        /**
+         *  Marks the decoding of the entries of the registry as depending on the state of the reload (e.g: tags, dynamic
+         *  registries or the entries of other registries), so that all entries are decoded again on every reload even if
+         *  {@link #incrementalReload()} is set.
+         */
+        public Builder<T> dependsOnReloadState() {
+            this.dependsOnReloadState = true;
+            return this;
+        }
+
+        /**
+         *  Makes the registry compress its entries when syncing them to clients that support receiving them in chunks.
+         *  Worth it for registries with many or large entries.
+         */
+        public Builder<T> compressSync() {
+            this.compressSync = true;
+            return this;
+        }
+
+        /**
+         *  Makes the loader of the registry only list the data files during preparation, and read each of them as a token
+         *  stream straight into its data object when applying (see {@link DataObjectRegistry#readDataObject(JsonReader)}).
+         *  This avoids keeping the parsed trees of all data files in memory until they're applied, at the cost of reading
+         *  the files on the thread that applies the reload. Only has an effect if the registry reads from data without a
+         *  loading priority, and without incremental reloading, since both of those need the parsed trees.
+         */
+        public Builder<T> streamingDecode() {
+            this.streamingDecode = true;
+            return this;
+        }
+
+        /**
+         *  Makes the loader of the registry decode the entries while preparing the reload, on the threads preparing it (in
+         *  parallel per ID with {@link #parallelPreparation()}), so that applying the reload only has to publish them. This
+         *  takes the decoding off the server thread. It's only safe for registries whose factories don't depend on state
+         *  that is only available when applying: tags aren't loaded yet while preparing (the existence of the tags read
+         *  by the tag data types is checked when applying instead), and other registries may still hold the entries of the
+         *  previous reload. Only has an effect if the registry reads from data without incremental reloading, and takes
+         *  precedence over {@link #streamingDecode()}.
+         */
+        public Builder<T> decodeInPreparation() {
+            this.decodeInPreparation = true;
+            return this;
+        }
+
         public DataObjectRegistry<T> buildAndRegister() {
             DataObjectRegistry<T> registry;
             if(readFromData) {
                 registry = new DataObjectRegistry<>(registryId, objectClass, factoryFieldName, defaultFactory, jsonPreprocessor, dataFolder, useLoadingPriority, errorHandler);
+                registry.loader.setParallelPreparation(parallelPreparation);
+                registry.loader.setJsonCache(cacheParsedJson ? new ParsedJsonCache(registryId.toString()) : null);
+                boolean incremental = incrementalReload && !dependsOnReloadState;
+                registry.loader.incremental = incremental;
+                registry.loader.streaming = streamingDecode && !useLoadingPriority && !incremental;
+                registry.loader.decodeInPreparation = decodeInPreparation && !incremental;
             } else {
                 registry = new DataObjectRegistry<>(registryId, objectClass, factoryFieldName, defaultFactory, jsonPreprocessor);
             }
+            registry.compressSync = compressSync;
             REGISTRIES.put(registryId, registry);
             if(autoSync) {
                 AUTO_SYNC_SET.add(registryId);
@@ -0,0 +1,196 @@
+package io.github.apace100.calio.registry;
+
+import io.github.apace100.calio.network.CalioNetworking;
+import io.github.apace100.calio.network.IdentifierTable;
+import io.github.apace100.calio.network.PayloadChunker;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable, versioned view of the synced entries of a {@link DataObjectRegistry}, along with their network encoding.
+ * Snapshots are used to determine which entries were added, changed or removed between the version a client has and the
+ * current version of the registry.<br>
+ * Each snapshot also caches the packets it encodes, so that syncing the same version to many players only encodes it
+ * once; every recipient gets a retained duplicate of the cached buffer.<br>
+ * Entries are encoded with a {@link SyncPacketByteBuf}, using the identifier table of the registry. The table only grows,
+ * so a delta only needs to contain the identifiers that were added to it since the base snapshot was taken.
+ * @param <T> the type of the registry entries
+ */
+public final class RegistrySnapshot<T> {
+
+    private final int version;
+    private final Map<Identifier, T> entries;
+    private final Map<Identifier, byte[]> encodedEntries;
+    private final IdentifierTable identifierTable;
+    private final int identifierCount;
+    private final int flags;
+    private final BiConsumer<PacketByteBuf, T> encoder;
+
+    private ByteBuf fullPacket;
+    private final Map<Integer, ByteBuf> deltaPackets = new HashMap<>();
+    private final Map<Integer, List<ByteBuf>> chunkedDeltaPackets = new HashMap<>();
+
+    private RegistrySnapshot(int version, Map<Identifier, T> entries, Map<Identifier, byte[]> encodedEntries, IdentifierTable identifierTable, int flags, BiConsumer<PacketByteBuf, T> encoder) {
+        this.version = version;
+        this.entries = entries;
+        this.encodedEntries = encodedEntries;
+        this.identifierTable = identifierTable;
+        this.identifierCount = identifierTable.size();
+        this.flags = flags;
+        this.encoder = encoder;
+    }
+
+    static <T> RegistrySnapshot<T> create(int version, Map<Identifier, T> entries, IdentifierTable identifierTable, int flags, BiConsumer<PacketByteBuf, T> encoder) {
+        Map<Identifier, T> entriesCopy = new LinkedHashMap<>(entries);
+        Map<Identifier, byte[]> encodedEntries = new HashMap<>(entries.size());
+        SyncPacketByteBuf buf = new SyncPacketByteBuf(Unpooled.buffer(), identifierTable, flags);
+        entriesCopy.forEach((id, entry) -> {
+            // The entry ID is written to the delta header, so it needs to be in the table as well
+            identifierTable.indexOf(id);
+            buf.clear();
+            encoder.accept(buf, entry);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            encodedEntries.put(id, bytes);
+        });
+        return new RegistrySnapshot<>(version, Collections.unmodifiableMap(entriesCopy), encodedEntries, identifierTable, flags, encoder);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Map<Identifier, T> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns whether the other snapshot has the same entries with the same network encoding as this one.
+     */
+    public boolean hasSameContents(RegistrySnapshot<T> other) {
+        if(identifierTable != other.identifierTable || flags != other.flags) {
+            return false;
+        }
+        if(!encodedEntries.keySet().equals(other.encodedEntries.keySet())) {
+            return false;
+        }
+        for(Map.Entry<Identifier, byte[]> entry : encodedEntries.entrySet()) {
+            if(!Arrays.equals(entry.getValue(), other.encodedEntries.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the entries which were added, changed or removed since the specified base snapshot, preceded by the
+     * identifiers the receiver is missing from the identifier table.
+     * @param buf the buffer to write to
+     * @param base the snapshot the receiver has, or null to write all entries
+     */
+    public void writeDelta(PacketByteBuf buf, @Nullable RegistrySnapshot<T> base) {
+        if(base != null && base.identifierTable != identifierTable) {
+            base = null;
+        }
+        buf.writeVarInt(base == null ? 0 : base.version);
+        buf.writeVarInt(version);
+        buf.writeByte(flags);
+        identifierTable.write(buf, base == null ? 0 : base.identifierCount, identifierCount);
+        SyncPacketByteBuf syncBuf = new SyncPacketByteBuf(buf, identifierTable, flags);
+        List<Identifier> removed = new ArrayList<>();
+        if(base != null) {
+            for(Identifier id : base.encodedEntries.keySet()) {
+                if(!encodedEntries.containsKey(id)) {
+                    removed.add(id);
+                }
+            }
+        }
+        syncBuf.writeVarInt(removed.size());
+        removed.forEach(syncBuf::writeIdentifier);
+        List<Identifier> changed = new ArrayList<>();
+        for(Map.Entry<Identifier, byte[]> entry : encodedEntries.entrySet()) {
+            if(base == null || !Arrays.equals(entry.getValue(), base.encodedEntries.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        syncBuf.writeVarInt(changed.size());
+        for(Identifier id : changed) {
+            // Entries are length-prefixed, so a receiver can skip an entry it fails to decode
+            syncBuf.writeIdentifier(id);
+            syncBuf.writeByteArray(encodedEntries.get(id));
+        }
+    }
+
+    /**
+     * Returns a packet containing all entries in the format of {@link DataObjectRegistry#write(PacketByteBuf)}, preceded
+     * by the registry ID. The returned buffer shares its contents with the cached packet.
+     */
+    public PacketByteBuf createFullPacket(Identifier registryId) {
+        if(fullPacket == null) {
+            // Clients which don't support deltas don't support the identifier table either, so the entries are encoded again
+            PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+            buf.writeIdentifier(registryId);
+            buf.writeInt(entries.size());
+            entries.forEach((id, entry) -> {
+                buf.writeIdentifier(id);
+                encoder.accept(buf, entry);
+            });
+            fullPacket = buf;
+        }
+        return new PacketByteBuf(fullPacket.retainedDuplicate());
+    }
+
+    /**
+     * Returns a packet containing the delta since the specified base snapshot (see {@link #writeDelta(PacketByteBuf, RegistrySnapshot)}),
+     * preceded by the registry ID. The returned buffer shares its contents with the cached packet.
+     */
+    public PacketByteBuf createDeltaPacket(Identifier registryId, @Nullable RegistrySnapshot<T> base) {
+        return new PacketByteBuf(getDeltaPacket(registryId, base).retainedDuplicate());
+    }
+
+    /**
+     * Returns the chunks of the delta packet since the specified base snapshot (see {@link #createDeltaPacket(Identifier, RegistrySnapshot)}),
+     * which are sent on {@link io.github.apace100.calio.network.CalioNetworking#SYNC_DATA_OBJECT_REGISTRY_CHUNK}. The
+     * returned buffers share their contents with the cached chunks.
+     * @param compress whether the packet is compressed; this must be the same for all calls on the same snapshot
+     */
+    public List<PacketByteBuf> createChunkedDeltaPackets(Identifier registryId, @Nullable RegistrySnapshot<T> base, boolean compress) {
+        List<ByteBuf> chunks = chunkedDeltaPackets.computeIfAbsent(base == null ? 0 : base.version, baseVersion ->
+            PayloadChunker.split(CalioNetworking.SYNC_DATA_OBJECT_REGISTRY_DELTA, getDeltaPacket(registryId, base), compress));
+        List<PacketByteBuf> packets = new ArrayList<>(chunks.size());
+        for(ByteBuf chunk : chunks) {
+            packets.add(new PacketByteBuf(chunk.retainedDuplicate()));
+        }
+        return packets;
+    }
+
+    private ByteBuf getDeltaPacket(Identifier registryId, @Nullable RegistrySnapshot<T> base) {
+        return deltaPackets.computeIfAbsent(base == null ? 0 : base.version, baseVersion -> {
+            PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+            buf.writeIdentifier(registryId);
+            writeDelta(buf, base);
+            return buf;
+        });
+    }
+
+    /**
+     * Releases the cached packets of this snapshot, e.g: once it's no longer the latest snapshot of its registry.
+     */
+    void releasePackets() {
+        if(fullPacket != null) {
+            fullPacket.release();
+            fullPacket = null;
+        }
+        deltaPackets.values().forEach(ByteBuf::release);
+        deltaPackets.clear();
+        chunkedDeltaPackets.values().forEach(chunks -> chunks.forEach(ByteBuf::release));
+        chunkedDeltaPackets.clear();
+    }
+}
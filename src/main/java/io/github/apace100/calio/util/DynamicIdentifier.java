@@ -23,16 +23,18 @@ public class DynamicIdentifier extends Identifier {
 
         String[] namespaceAndPath = splitWithNamespace(idString, defaultNamespace);
         if (namespaceAndPath[0].contains("*")) {
-            if (SerializableData.CURRENT_NAMESPACE != null) {
-                namespaceAndPath[0] = namespaceAndPath[0].replace("*", SerializableData.CURRENT_NAMESPACE);
+            String currentNamespace = SerializableData.getCurrentNamespace();
+            if (currentNamespace != null) {
+                namespaceAndPath[0] = namespaceAndPath[0].replace("*", currentNamespace);
             } else {
                 throw new InvalidIdentifierException("Identifiers may only contain '*' in its namespace in data loaders that support it.");
             }
         }
 
         if (namespaceAndPath[1].contains("*")) {
-            if (SerializableData.CURRENT_PATH != null) {
-                namespaceAndPath[1] = namespaceAndPath[1].replace("*", SerializableData.CURRENT_PATH);
+            String currentPath = SerializableData.getCurrentPath();
+            if (currentPath != null) {
+                namespaceAndPath[1] = namespaceAndPath[1].replace("*", currentPath);
             } else {
                 throw new InvalidIdentifierException("Identifiers may only contain '*' in its path in data loaders that support it.");
             }
@@ -7,6 +7,7 @@ import com.google.gson.JsonSyntaxException;
 import com.mojang.datafixers.util.Either;
 import io.github.apace100.calio.Calio;
 import io.github.apace100.calio.data.DataException;
+import io.github.apace100.calio.network.SyncPacketByteBuf;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.registry.Registry;
 import net.minecraft.registry.RegistryKey;
@@ -15,16 +16,23 @@ import net.minecraft.registry.tag.TagKey;
 import net.minecraft.util.Identifier;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 //  TODO: Implement support for optional entries
 @SuppressWarnings("unused")
 public class TagLike<T> {
 
+    //  Incremented whenever tags are bound, which makes all tag-likes resolve their members again
+    private static final AtomicInteger TAG_GENERATION = new AtomicInteger();
+
     private final Registry<T> registry;
 
-    private final List<TagKey<T>> tags = new LinkedList<>();
+    private final List<TagKey<T>> tags = new ArrayList<>();
     private final Set<T> items = new HashSet<>();
 
+    //  The raw IDs of the items and the entries of the tags; null until the first lookup after a change
+    private volatile Members members;
+
     public TagLike(Registry<T> registry) {
         this.registry = registry;
     }
@@ -39,33 +47,86 @@ public class TagLike<T> {
 
     public void addTag(TagKey<T> tagKey) {
         tags.add(tagKey);
+        members = null;
     }
 
     public void add(T t) {
         items.add(t);
+        members = null;
     }
 
     public void addAll(TagLike<T> otherTagLike) {
         this.tags.addAll(otherTagLike.tags);
         this.items.addAll(otherTagLike.items);
+        this.members = null;
     }
 
+    /**
+     *  Checks whether the specified value is one of the items, or an entry of one of the tags. The raw IDs of the members
+     *  are resolved into a bit set on the first lookup, and again after the tags have been reloaded, so a lookup doesn't
+     *  go through the tags.
+     */
     public boolean contains(T t) {
 
-        if (items.contains(t)) {
-            return true;
+        int rawId = registry.getRawId(t);
+        if (rawId < 0) {
+            return items.contains(t);
+        }
+
+        Members members = this.members;
+        if (members == null || members.tagGeneration() != TAG_GENERATION.get()) {
+            members = resolveMembers();
+        }
+
+        return members.rawIds().get(rawId);
+
+    }
+
+    private Members resolveMembers() {
+
+        //  Read the generation first, so that tags bound while resolving cause another resolve on the next lookup
+        int tagGeneration = TAG_GENERATION.get();
+        BitSet rawIds = new BitSet(registry.size());
+
+        for (T t : items) {
+
+            int rawId = registry.getRawId(t);
+            if (rawId >= 0) {
+                rawIds.set(rawId);
+            }
+
+        }
+
+        for (TagKey<T> tagKey : tags) {
+            for (RegistryEntry<T> entry : registry.iterateEntries(tagKey)) {
+
+                int rawId = registry.getRawId(entry.value());
+                if (rawId >= 0) {
+                    rawIds.set(rawId);
+                }
+
+            }
         }
 
-        RegistryEntry<T> entry = registry.getEntry(t);
-        return tags
-            .stream()
-            .anyMatch(entry::isIn);
+        Members members = new Members(tagGeneration, rawIds);
+        this.members = members;
 
+        return members;
+
+    }
+
+    /**
+     *  Makes all tag-likes resolve their members again on their next lookup. Called whenever tags are bound, on both the
+     *  server and the client.
+     */
+    public static void onTagsLoaded() {
+        TAG_GENERATION.incrementAndGet();
     }
 
     public void clear() {
         this.tags.clear();
         this.items.clear();
+        this.members = null;
     }
 
     public void write(PacketByteBuf buf) {
@@ -75,19 +136,17 @@ public class TagLike<T> {
             buf.writeIdentifier(tagKey.id());
         }
 
-        List<Identifier> ids = new LinkedList<>();
+        List<T> registeredItems = new ArrayList<>(items.size());
         for (T t : items) {
 
-            Identifier id = registry.getId(t);
-
-            if (id != null) {
-                ids.add(id);
+            if (registry.getId(t) != null) {
+                registeredItems.add(t);
             }
 
         }
 
-        buf.writeVarInt(ids.size());
-        ids.forEach(buf::writeIdentifier);
+        buf.writeVarInt(registeredItems.size());
+        registeredItems.forEach(t -> SyncPacketByteBuf.writeRegistryValue(buf, registry, t));
 
     }
 
@@ -103,14 +162,12 @@ public class TagLike<T> {
         count = buf.readVarInt();
         for (int i = 0; i < count; i++) {
 
-            T t = registry.get(buf.readIdentifier());
-
-            if (t != null) {
-                items.add(t);
-            }
+            SyncPacketByteBuf.readRegistryValue(buf, registry).ifPresent(items::add);
 
         }
 
+        this.members = null;
+
     }
 
     private static <T> Either<TagKey<T>, Identifier> parse(Registry<T> registry, JsonElement jsonElement) {
@@ -119,7 +176,6 @@ public class TagLike<T> {
             throw new JsonSyntaxException("Expected a string.");
         }
 
-        Map<TagKey<?>, Collection<RegistryEntry<?>>> registryTags = Calio.REGISTRY_TAGS.get();
         RegistryKey<? extends Registry<T>> registryKey = registry.getKey();
 
         String entry = jsonElement.getAsString();
@@ -130,7 +186,7 @@ public class TagLike<T> {
             entryId = DynamicIdentifier.of(entry.substring(1));
             TagKey<T> entryTag = TagKey.of(registryKey, entryId);
 
-            if (registryTags != null && !registryTags.containsKey(entryTag)) {
+            if (Calio.isTagMissing(entryTag)) {
                 throw new IllegalArgumentException("Tag \"" + entryId + "\" for registry \"" + registryKey.getValue() + "\" doesn't exist.");
             }
 
@@ -212,6 +268,11 @@ public class TagLike<T> {
 
     }
 
+    //  The bit set is never modified after being published
+    private record Members(int tagGeneration, BitSet rawIds) {
+
+    }
+
     @Deprecated(forRemoval = true)
     public void write(JsonArray array) {
 
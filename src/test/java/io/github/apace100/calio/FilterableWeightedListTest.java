@@ -0,0 +1,138 @@
+package io.github.apace100.calio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that weighted picks follow the weights of the elements that pass the filter.
+ */
+class FilterableWeightedListTest {
+
+    private static final int PICKS = 100_000;
+
+    // Generous for the number of picks, so that the tests don't fail for an unlucky seed
+    private static final double TOLERANCE = 0.01;
+
+    @Test
+    void picksProportionallyToWeight() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 1);
+        list.add("b", 2);
+        list.add("c", 3);
+        list.add("d", 4);
+
+        Map<String, Integer> counts = pick(list, new Random(0L));
+
+        assertFrequency(0.1, counts.get("a"));
+        assertFrequency(0.2, counts.get("b"));
+        assertFrequency(0.3, counts.get("c"));
+        assertFrequency(0.4, counts.get("d"));
+    }
+
+    @Test
+    void picksOnlyElementsThatPassFilter() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 1);
+        list.add("b", 2);
+        list.add("c", 3);
+        list.setFilter(element -> !element.equals("b"));
+
+        Map<String, Integer> counts = pick(list, new Random(0L));
+
+        assertNull(counts.get("b"));
+        assertFrequency(0.25, counts.get("a"));
+        assertFrequency(0.75, counts.get("c"));
+    }
+
+    @Test
+    void picksUniformlyWithoutWeights() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 0);
+        list.add("b", 0);
+
+        Map<String, Integer> counts = pick(list, new Random(0L));
+
+        assertFrequency(0.5, counts.get("a"));
+        assertFrequency(0.5, counts.get("b"));
+    }
+
+    @Test
+    void neverPicksElementsWithoutWeight() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 0);
+        list.add("b", 1);
+        list.add("c", 0);
+
+        Map<String, Integer> counts = pick(list, new Random(0L));
+
+        assertEquals(Map.of("b", PICKS), counts);
+    }
+
+    @Test
+    void keepsWeightsWhenShuffledOrCopied() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 1);
+        list.add("b", 3);
+        list.shuffle();
+
+        Map<String, Integer> counts = pick(list.copy(), new Random(0L));
+
+        assertFrequency(0.25, counts.get("a"));
+        assertFrequency(0.75, counts.get("b"));
+    }
+
+    @Test
+    void picksDistinctElementsWithWeight() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 0);
+        list.add("b", 1);
+        list.add("c", 1);
+
+        Random random = new Random(0L);
+        for(int i = 0; i < 1000; i++) {
+            String[] picked = new String[3];
+            int count = list.pickRandom(random, picked, 3, false);
+            assertEquals(2, count);
+            assertNotEquals(picked[0], picked[1]);
+            assertTrue(List.of("b", "c").contains(picked[0]));
+            assertTrue(List.of("b", "c").contains(picked[1]));
+            assertNull(picked[2]);
+        }
+    }
+
+    @Test
+    void streamsTestFilterWhenCalled() {
+        FilterableWeightedList<String> list = new FilterableWeightedList<>();
+        list.add("a", 1);
+        list.add("b", 1);
+
+        AtomicBoolean excludeA = new AtomicBoolean();
+        list.setFilter(element -> !(excludeA.get() && element.equals("a")));
+        assertEquals(List.of("a", "b"), list.stream().toList());
+
+        excludeA.set(true);
+        assertEquals(List.of("b"), list.stream().toList());
+        assertEquals(1, list.entryStream().count());
+    }
+
+    private static Map<String, Integer> pick(FilterableWeightedList<String> list, Random random) {
+        Map<String, Integer> counts = new HashMap<>();
+        for(int i = 0; i < PICKS; i++) {
+            counts.merge(list.pickRandom(random), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static void assertFrequency(double expected, Integer count) {
+        assertNotNull(count);
+        assertEquals(expected, (double) count / PICKS, TOLERANCE);
+    }
+
+}
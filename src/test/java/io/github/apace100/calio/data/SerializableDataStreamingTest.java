@@ -0,0 +1,128 @@
+package io.github.apace100.calio.data;
+
+import com.google.gson.JsonParser;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.quiltmc.parsers.json.JsonFormat;
+import org.quiltmc.parsers.json.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *  Checks that reading serializable data from a JSON token stream gives the same values as reading it from a parsed JSON
+ *  tree, regardless of the order of the fields.
+ */
+class SerializableDataStreamingTest {
+
+    private static SerializableData data;
+
+    @BeforeAll
+    static void setup() {
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        data = new SerializableData()
+            .add("name", SerializableDataTypes.STRING)
+            .add("amount", SerializableDataTypes.INT, 1)
+            .add("enabled", SerializableDataTypes.BOOLEAN, false)
+            .add("weight", SerializableDataTypes.FLOAT, 0.5F)
+            .add("id", SerializableDataTypes.IDENTIFIER, null)
+            .add("values", SerializableDataTypes.INTS, List.of())
+            .add("tags", SerializableDataTypes.STRINGS, List.of())
+            .add("counts", SerializableDataType.map(SerializableDataTypes.INT), Map.of())
+            .addFunctionedDefault("label", SerializableDataTypes.STRING, instance -> instance.getString("name") + "!");
+
+    }
+
+    @Test
+    void readsFieldsInAnyOrder() throws IOException {
+
+        String json = """
+            {"name": "test", "amount": 3, "enabled": true, "weight": 2.5, "id": "calio:test", "values": [1, 2, 3], "tags": ["a", "b"], "counts": {"x": 1, "y": 2}, "label": "label"}
+            """;
+        String reorderedJson = """
+            {"label": "label", "counts": {"y": 2, "x": 1}, "tags": ["a", "b"], "values": [1, 2, 3], "id": "calio:test", "weight": 2.5, "enabled": true, "amount": 3, "name": "test"}
+            """;
+
+        SerializableData.Instance expected = readTree(json);
+
+        assertSameValues(expected, readStreamed(json));
+        assertSameValues(expected, readStreamed(reorderedJson));
+        assertEquals(3, readStreamed(reorderedJson).getInt("amount"));
+
+    }
+
+    @Test
+    void skipsUnknownFields() throws IOException {
+
+        String json = """
+            {"name": "test", "values": [4, 5]}
+            """;
+        String jsonWithUnknownFields = """
+            {"unknown": {"nested": [1, {"deep": null}, "text"], "flag": false}, "name": "test", "other": 5, "values": [4, 5], "last": []}
+            """;
+
+        SerializableData.Instance expected = readTree(json);
+
+        assertSameValues(expected, readTree(jsonWithUnknownFields));
+        assertSameValues(expected, readStreamed(jsonWithUnknownFields));
+
+    }
+
+    @Test
+    void appliesDefaults() throws IOException {
+
+        String json = """
+            {"name": "test"}
+            """;
+
+        SerializableData.Instance expected = readTree(json);
+        SerializableData.Instance actual = readStreamed(json);
+
+        assertSameValues(expected, actual);
+        assertEquals(1, actual.getInt("amount"));
+        assertFalse(actual.getBoolean("enabled"));
+        assertNull(actual.get("id"));
+        assertEquals("test!", actual.getString("label"));
+
+    }
+
+    @Test
+    void failsOnMissingRequiredField() {
+
+        String json = """
+            {"amount": 2}
+            """;
+
+        DataException treeException = assertThrows(DataException.class, () -> readTree(json));
+        DataException streamedException = assertThrows(DataException.class, () -> readStreamed(json));
+
+        assertEquals(treeException.getMessage(), streamedException.getMessage());
+
+    }
+
+    private static SerializableData.Instance readTree(String json) {
+        return data.read(JsonParser.parseString(json).getAsJsonObject());
+    }
+
+    private static SerializableData.Instance readStreamed(String json) throws IOException {
+        try (JsonReader reader = JsonReader.create(new StringReader(json), JsonFormat.JSON)) {
+            return data.read(reader);
+        }
+    }
+
+    private static void assertSameValues(SerializableData.Instance expected, SerializableData.Instance actual) {
+        for (String name : data.getFieldNames()) {
+            assertEquals((Object) expected.get(name), actual.get(name), name);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.apace100.calio.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that identifier tables and the identifiers encoded with them arrive unchanged, including when only the
+ * identifiers appended since the last transfer are sent.
+ */
+class IdentifierTableTest {
+
+    private static final List<Identifier> IDS = List.of(
+        new Identifier("calio", "first"),
+        new Identifier("calio", "second"),
+        new Identifier("other", "path/third")
+    );
+
+    @Test
+    void roundTrips() {
+        IdentifierTable sent = new IdentifierTable();
+        IDS.forEach(sent::indexOf);
+
+        IdentifierTable received = new IdentifierTable();
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        sent.write(buf, 0, sent.size());
+
+        assertTrue(received.read(buf));
+        assertTableEquals(sent, received);
+    }
+
+    @Test
+    void appendsMissingIdentifiers() {
+        IdentifierTable sent = new IdentifierTable();
+        IdentifierTable received = new IdentifierTable();
+        sent.indexOf(IDS.get(0));
+
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        sent.write(buf, 0, sent.size());
+        assertTrue(received.read(buf));
+
+        int start = sent.size();
+        sent.indexOf(IDS.get(1));
+        sent.indexOf(IDS.get(2));
+        sent.indexOf(IDS.get(0));
+
+        buf.clear();
+        sent.write(buf, start, sent.size());
+
+        assertTrue(received.read(buf));
+        assertTableEquals(sent, received);
+    }
+
+    @Test
+    void rejectsIdentifiersThatDontContinueTable() {
+        IdentifierTable sent = new IdentifierTable();
+        IDS.forEach(sent::indexOf);
+
+        IdentifierTable received = new IdentifierTable();
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        sent.write(buf, 1, sent.size());
+
+        assertFalse(received.read(buf));
+        assertEquals(0, received.size());
+    }
+
+    @Test
+    void encodesIdentifiersAsIndices() {
+        IdentifierTable sent = new IdentifierTable();
+        SyncPacketByteBuf buf = new SyncPacketByteBuf(Unpooled.buffer(), sent, SyncPacketByteBuf.COMPACT);
+        IDS.forEach(buf::writeIdentifier);
+        buf.writeIdentifier(IDS.get(1));
+
+        IdentifierTable received = sent.copy();
+        SyncPacketByteBuf receivedBuf = new SyncPacketByteBuf(buf, received, SyncPacketByteBuf.COMPACT);
+        for(Identifier id : IDS) {
+            assertEquals(id, receivedBuf.readIdentifier());
+        }
+        assertEquals(IDS.get(1), receivedBuf.readIdentifier());
+        assertEquals(IDS.size(), sent.size());
+    }
+
+    private static void assertTableEquals(IdentifierTable expected, IdentifierTable actual) {
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+            assertEquals(i, actual.indexOf(expected.get(i)));
+        }
+    }
+
+}
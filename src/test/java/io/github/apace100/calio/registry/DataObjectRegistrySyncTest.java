@@ -0,0 +1,227 @@
+package io.github.apace100.calio.registry;
+
+import io.github.apace100.calio.data.SerializableData;
+import io.github.apace100.calio.data.SerializableDataTypes;
+import io.netty.buffer.Unpooled;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the entries of a registry arrive unchanged when they're synced as a delta, both with all entries and with
+ * only the entries which changed since a previous version, and which versions the client acknowledges.
+ */
+class DataObjectRegistrySyncTest {
+
+    // Registries can't be unregistered, so every test creates registries with new IDs
+    private static final AtomicInteger NEXT_REGISTRY = new AtomicInteger();
+
+    private static final Identifier FACTORY_ID = new Identifier("calio", "test");
+
+    private static final Identifier FIRST = new Identifier("calio", "first");
+    private static final Identifier SECOND = new Identifier("calio", "second");
+    private static final Identifier THIRD = new Identifier("other", "third");
+
+    @BeforeAll
+    static void setup() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void receivesAllEntries() {
+        DataObjectRegistry<TestObject> server = createRegistry();
+        DataObjectRegistry<TestObject> client = createRegistry();
+
+        server.register(FIRST, new TestObject(SECOND, "First", 1, List.of(1, 2)));
+        server.register(SECOND, new TestObject(THIRD, "Second", 2, List.of()));
+        RegistrySnapshot<TestObject> snapshot = server.getSnapshot();
+
+        assertEquals(snapshot.getVersion(), receive(client, snapshot, null));
+        assertEntriesEqual(server, client);
+    }
+
+    @Test
+    void receivesChangedEntries() {
+        DataObjectRegistry<TestObject> server = createRegistry();
+        DataObjectRegistry<TestObject> client = createRegistry();
+
+        server.register(FIRST, new TestObject(SECOND, "First", 1, List.of(1, 2)));
+        server.register(SECOND, new TestObject(THIRD, "Second", 2, List.of()));
+        RegistrySnapshot<TestObject> base = server.getSnapshot();
+        assertEquals(base.getVersion(), receive(client, base, null));
+
+        server.clear();
+        server.register(FIRST, new TestObject(THIRD, "Changed", 3, List.of(3)));
+        server.register(THIRD, new TestObject(FIRST, "Third", 4, List.of(4, 5, 6)));
+        RegistrySnapshot<TestObject> snapshot = server.getSnapshot();
+
+        assertNotEquals(base.getVersion(), snapshot.getVersion());
+        assertEquals(snapshot.getVersion(), receive(client, snapshot, base));
+        assertEquals(Set.of(FIRST, THIRD), client.getIds());
+        assertEntriesEqual(server, client);
+    }
+
+    @Test
+    void rejectsDeltaOfUnknownBase() {
+        DataObjectRegistry<TestObject> server = createRegistry();
+        DataObjectRegistry<TestObject> client = createRegistry();
+
+        server.register(FIRST, new TestObject(SECOND, "First", 1, List.of(1, 2)));
+        RegistrySnapshot<TestObject> base = server.getSnapshot();
+
+        server.register(SECOND, new TestObject(THIRD, "Second", 2, List.of()));
+        RegistrySnapshot<TestObject> snapshot = server.getSnapshot();
+
+        // The client never received the base version, so it has to ask for all entries
+        assertEquals(0, receive(client, snapshot, base));
+        assertTrue(client.getIds().isEmpty());
+    }
+
+    @Test
+    void leavesOutEntriesThatFailToDecode() {
+        DataObjectRegistry<TestObject> server = createRegistry();
+        DataObjectRegistry<TestObject> client = createRegistry(new DataObjectFactory<>() {
+
+            @Override
+            public SerializableData getData() {
+                return TestObject.FACTORY.getData();
+            }
+
+            @Override
+            public TestObject fromData(SerializableData.Instance instance) {
+                if(instance.getString("name").equals("Broken")) {
+                    throw new IllegalStateException("Broken entry");
+                }
+                return TestObject.FACTORY.fromData(instance);
+            }
+
+            @Override
+            public SerializableData.Instance toData(TestObject object) {
+                return TestObject.FACTORY.toData(object);
+            }
+
+        });
+
+        server.register(FIRST, new TestObject(SECOND, "First", 1, List.of(1, 2)));
+        server.register(SECOND, new TestObject(THIRD, "Broken", 2, List.of()));
+        RegistrySnapshot<TestObject> base = server.getSnapshot();
+
+        // Acknowledged like any other version, since asking for all entries again would fail the same way
+        assertEquals(base.getVersion(), receive(client, base, null));
+        assertEquals(Set.of(FIRST), client.getIds());
+        assertEquals(server.get(FIRST), client.get(FIRST));
+
+        server.register(THIRD, new TestObject(FIRST, "Third", 3, List.of(3)));
+        RegistrySnapshot<TestObject> snapshot = server.getSnapshot();
+
+        // Later deltas still apply on top of the version with the failed entry
+        assertEquals(snapshot.getVersion(), receive(client, snapshot, base));
+        assertEquals(Set.of(FIRST, THIRD), client.getIds());
+        assertEquals(server.get(THIRD), client.get(THIRD));
+    }
+
+    @Test
+    void acknowledgesWithoutApplyingWhenNotScheduled() {
+        DataObjectRegistry<TestObject> server = createRegistry();
+        DataObjectRegistry<TestObject> client = createRegistry();
+
+        server.register(FIRST, new TestObject(SECOND, "First", 1, List.of(1, 2)));
+        RegistrySnapshot<TestObject> base = server.getSnapshot();
+
+        // Like on the integrated server, where the client shares the registry with the server
+        assertEquals(base.getVersion(), receive(client, base, null, null));
+        assertTrue(client.getIds().isEmpty());
+
+        server.register(SECOND, new TestObject(THIRD, "Second", 2, List.of()));
+        RegistrySnapshot<TestObject> snapshot = server.getSnapshot();
+
+        assertEquals(snapshot.getVersion(), receive(client, snapshot, base, null));
+        assertTrue(client.getIds().isEmpty());
+    }
+
+    private static int receive(DataObjectRegistry<TestObject> client, RegistrySnapshot<TestObject> snapshot, RegistrySnapshot<TestObject> base) {
+        return receive(client, snapshot, base, Runnable::run);
+    }
+
+    private static int receive(DataObjectRegistry<TestObject> client, RegistrySnapshot<TestObject> snapshot, RegistrySnapshot<TestObject> base, Consumer<Runnable> scheduler) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        try {
+            snapshot.writeDelta(buf, base);
+            AtomicInteger acknowledged = new AtomicInteger(-1);
+            client.receiveDelta(buf, scheduler, acknowledged::set);
+            return acknowledged.get();
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void assertEntriesEqual(DataObjectRegistry<TestObject> expected, DataObjectRegistry<TestObject> actual) {
+        assertEquals(expected.getIds(), actual.getIds());
+        for(Identifier id : expected.getIds()) {
+            assertEquals(expected.get(id), actual.get(id), id.toString());
+        }
+    }
+
+    private static DataObjectRegistry<TestObject> createRegistry() {
+        return createRegistry(TestObject.FACTORY);
+    }
+
+    private static DataObjectRegistry<TestObject> createRegistry(DataObjectFactory<TestObject> factory) {
+        DataObjectRegistry<TestObject> registry = new DataObjectRegistry.Builder<>(new Identifier("calio", "test_" + NEXT_REGISTRY.incrementAndGet()), TestObject.class)
+            .defaultFactory(factory)
+            .buildAndRegister();
+        registry.registerFactory(FACTORY_ID, factory);
+        return registry;
+    }
+
+    public record TestObject(Identifier target, String name, int amount, List<Integer> values) implements DataObject<TestObject> {
+
+        private static final DataObjectFactory<TestObject> FACTORY = new DataObjectFactory<>() {
+
+            private final SerializableData data = new SerializableData()
+                .add("target", SerializableDataTypes.IDENTIFIER)
+                .add("name", SerializableDataTypes.STRING)
+                .add("amount", SerializableDataTypes.INT)
+                .add("values", SerializableDataTypes.INTS);
+
+            @Override
+            public SerializableData getData() {
+                return data;
+            }
+
+            @Override
+            public TestObject fromData(SerializableData.Instance instance) {
+                return new TestObject(instance.getId("target"), instance.getString("name"), instance.getInt("amount"), instance.get("values"));
+            }
+
+            @Override
+            public SerializableData.Instance toData(TestObject object) {
+                SerializableData.Instance instance = data.new Instance();
+                instance.set("target", object.target);
+                instance.set("name", object.name);
+                instance.set("amount", object.amount);
+                instance.set("values", object.values);
+                return instance;
+            }
+
+        };
+
+        @Override
+        public DataObjectFactory<TestObject> getFactory() {
+            return FACTORY;
+        }
+
+    }
+
+}